@@ -1,10 +1,50 @@
 package ai;
 
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
+import java.util.Optional;
+
 public interface AIUtil {
     boolean compareImages(String expectedImagePath, String actualImagePath, double threshold);
+    boolean compareImages(String expectedImagePath, byte[] actualImage, double threshold);
+    /**
+     * Compares every image under {@code expectedDir} with the image at the same relative path under
+     * {@code actualDir} and writes {@code summary.json} and {@code failures.html} to {@code reportDir}.
+     */
+    BatchComparison.Summary compareDirectories(String expectedDir, String actualDir, double threshold,
+                                               String reportDir);
+    /**
+     * Captures {@code element} and compares it in memory against the baseline; the capture is written to
+     * {@code actualImagePath} only when it does not match.
+     */
+    boolean compareElementScreenshot(WebElement element, String expectedImagePath, String actualImagePath,
+                                     double threshold);
+    byte[] captureElementScreenshot(WebElement element);
     void captureElementScreenshot(WebElement element, String outputPath);
+    byte[] captureFullPageScreenshot(WebDriver driver);
     void captureFullPageScreenshot(WebDriver driver, String outputPath);
+    /**
+     * Recognises the text in an encoded screenshot, limited to {@code region} (image pixels) unless it is
+     * {@code null}.
+     */
+    OcrEngine.Result readText(byte[] image, Rectangle region);
+    String readText(WebElement element);
+    /**
+     * Finds {@code templatePath} in an encoded screenshot, within {@code searchRegion} (image pixels) unless it is
+     * {@code null}.
+     */
+    Optional<TemplateLocator.Match> locateTemplate(byte[] screenshot, String templatePath, Rectangle searchRegion);
+    /**
+     * Finds {@code templatePath} inside {@code element}; the point is the match centre as an offset in CSS pixels
+     * from the element centre, as {@code Actions.moveToElement(element, x, y)} expects.
+     */
+    Optional<Point> locateInElement(WebElement element, String templatePath);
+    /**
+     * Finds {@code templatePath} in the viewport, within {@code searchRegion} (CSS pixels) unless it is
+     * {@code null}; the point is the match centre in viewport CSS pixels.
+     */
+    Optional<Point> locateOnPage(WebDriver driver, String templatePath, Rectangle searchRegion);
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+package ai;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decoded baseline images shared by all test threads, evicted least-recently-used once their native size exceeds
+ * {@code maxBytes}. An entry is keyed by its path and is reloaded when the file's modification time changes.
+ * <p>
+ * Entries are reference counted: a baseline evicted while a comparison still holds its {@link Lease} is released
+ * when that lease is closed, so comparisons never see a released Mat.
+ */
+public final class BaselineCache {
+    private static final Logger LOGGER = LogManager.getLogger(BaselineCache.class);
+
+    private final long maxBytes;
+    private final Map<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public BaselineCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the decoded baseline at {@code imagePath}; the Mat is empty if the file cannot be read. The Mat is
+     * shared and must not be modified.
+     */
+    public Lease acquire(String imagePath) {
+        Path path = Paths.get(imagePath).toAbsolutePath().normalize();
+        long modified;
+        try {
+            modified = Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            LOGGER.error("Baseline {} is not readable: {}", path, e.getMessage());
+            return new Lease(new Entry(new Mat(), -1));
+        }
+
+        synchronized (this) {
+            Entry entry = entries.get(path);
+            if (entry != null && entry.modified == modified) {
+                hits.incrementAndGet();
+                entry.refs.incrementAndGet();
+                return new Lease(entry);
+            }
+        }
+
+        misses.incrementAndGet();
+        Entry loaded = new Entry(Imgcodecs.imread(path.toString()), modified);
+        if (loaded.mat.empty()) {
+            LOGGER.error("Baseline {} could not be decoded", path);
+            return new Lease(loaded);
+        }
+        residentBytes.addAndGet(loaded.bytes);
+        if (loaded.bytes > maxBytes) {
+            LOGGER.debug("Baseline {} ({} bytes) exceeds the cache size, not cached", path, loaded.bytes);
+            return new Lease(loaded);
+        }
+
+        synchronized (this) {
+            Entry current = entries.get(path);
+            if (current != null && current.modified == modified) {
+                // Another thread decoded the same baseline first
+                current.refs.incrementAndGet();
+                loaded.unref();
+                return new Lease(current);
+            }
+            if (current != null) {
+                remove(path, current);
+            }
+            loaded.refs.incrementAndGet();
+            entries.put(path, loaded);
+            cachedBytes += loaded.bytes;
+            evictOverBudget();
+            return new Lease(loaded);
+        }
+    }
+
+    /**
+     * Decodes the baseline at {@code imagePath} without looking it up in or adding it to the cache, for baselines
+     * compared once, which would otherwise evict the ones tests keep reusing. Its memory counts as resident until
+     * the lease is closed.
+     */
+    public Lease acquireUncached(String imagePath) {
+        Entry entry = new Entry(Imgcodecs.imread(imagePath), -1);
+        if (entry.mat.empty()) {
+            LOGGER.error("Baseline {} could not be decoded", imagePath);
+        }
+        residentBytes.addAndGet(entry.bytes);
+        return new Lease(entry);
+    }
+
+    /**
+     * Native bytes held by decoded baselines, including evicted and uncached ones that are still leased.
+     */
+    public long getNativeBytesInUse() {
+        return residentBytes.get();
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Path, Entry>> eldest = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Path, Entry> next = eldest.next();
+            eldest.remove();
+            cachedBytes -= next.getValue().bytes;
+            LOGGER.debug("Evicted baseline {}", next.getKey());
+            next.getValue().unref();
+        }
+    }
+
+    private void remove(Path path, Entry entry) {
+        entries.remove(path);
+        cachedBytes -= entry.bytes;
+        entry.unref();
+    }
+
+    private final class Entry {
+        private final Mat mat;
+        private final long modified;
+        private final long bytes;
+        private final AtomicInteger refs = new AtomicInteger(1);
+        private volatile Long hash;
+
+        private Entry(Mat mat, long modified) {
+            this.mat = mat;
+            this.modified = modified;
+            this.bytes = MatScratchPool.bytesOf(mat);
+        }
+
+        private void unref() {
+            if (refs.decrementAndGet() == 0) {
+                residentBytes.addAndGet(-bytes);
+                mat.release();
+            }
+        }
+    }
+
+    /**
+     * A baseline in use by one comparison; close it when the comparison is done.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public Mat mat() {
+            return entry.mat;
+        }
+
+        /**
+         * The baseline's {@link ImageHash#dHash(Mat) dHash}, computed on first use and kept with the entry.
+         */
+        public long hash() {
+            Long hash = entry.hash;
+            if (hash == null) {
+                hash = ImageHash.dHash(entry.mat);
+                entry.hash = hash;
+            }
+            return hash;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                entry.unref();
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package ai;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Compares a whole tree of baselines against a tree of actual images. Files are paired by their path relative
+ * to each root and compared on a fixed pool of {@code parallelism} threads, so at most that many decoded actual
+ * images are alive at once. Baselines are decoded outside the shared {@link BaselineCache}: each is compared once,
+ * and caching them would only evict the baselines running tests reuse.
+ * <p>
+ * The report directory receives {@code summary.json} with every result and {@code failures.html}, a gallery
+ * of failed comparisons showing baseline, actual and the actual with its changed regions outlined.
+ */
+public final class BatchComparison {
+    private static final Logger LOGGER = LogManager.getLogger(BatchComparison.class);
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("png", "jpg", "jpeg", "bmp", "webp");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().serializeNulls().create();
+    private static final Scalar OUTLINE = new Scalar(0, 0, 255);
+    private static final String STYLE = "<style>body{font-family:sans-serif}img{max-width:32%;"
+            + "border:1px solid #ccc;margin-right:1%}h2{font-size:1em;margin-top:2em}</style>";
+
+    public enum Status {
+        PASSED, FAILED, MISSING_ACTUAL, MISSING_BASELINE, UNREADABLE
+    }
+
+    private final OpenCVUtil openCV;
+    private final int parallelism;
+
+    BatchComparison(OpenCVUtil openCV, int parallelism) {
+        this.openCV = openCV;
+        this.parallelism = parallelism;
+    }
+
+    Summary run(Path expectedDir, Path actualDir, double threshold, Path reportDir) {
+        long start = System.nanoTime();
+        Set<Path> paths = new TreeSet<>(images(expectedDir));
+        paths.addAll(images(actualDir));
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "visual-batch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<PairResult> results = new ArrayList<>(paths.size());
+        try {
+            List<Future<PairResult>> futures = new ArrayList<>(paths.size());
+            for (Path relative : paths) {
+                futures.add(executor.submit(() -> compare(expectedDir, actualDir, relative, threshold, reportDir)));
+            }
+            for (Future<PairResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during batch comparison", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch comparison failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        for (PairResult result : results) {
+            counts.merge(result.status(), 1, Integer::sum);
+        }
+        Summary summary = new Summary(expectedDir.toString(), actualDir.toString(), threshold, results.size(),
+                counts, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), results);
+        try {
+            writeReport(summary, expectedDir, actualDir, reportDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write batch report to " + reportDir, e);
+        }
+        LOGGER.info("Compared {} images in {} ms: {}, report in {}", summary.total(), summary.millis(), counts,
+                reportDir);
+        return summary;
+    }
+
+    private PairResult compare(Path expectedDir, Path actualDir, Path relative, double threshold, Path reportDir) {
+        String name = relative.toString().replace('\\', '/');
+        Path expected = expectedDir.resolve(relative);
+        Path actual = actualDir.resolve(relative);
+        if (!Files.exists(actual)) {
+            return new PairResult(name, Status.MISSING_ACTUAL, Double.NaN, false, false, List.of());
+        }
+        if (!Files.exists(expected)) {
+            return new PairResult(name, Status.MISSING_BASELINE, Double.NaN, false, false, List.of());
+        }
+        ImageDiff.Result diff = openCV.diffImagesUncached(expected.toString(), actual.toString(), threshold);
+        if (diff == null) {
+            return new PairResult(name, Status.UNREADABLE, Double.NaN, false, false, List.of());
+        }
+        List<int[]> regions = new ArrayList<>(diff.changedRegions().size());
+        for (Rect region : diff.changedRegions()) {
+            regions.add(new int[]{region.x, region.y, region.width, region.height});
+        }
+        boolean passed = diff.matches(threshold);
+        if (!passed) {
+            writeOutlined(actual, diff.changedRegions(), reportDir.resolve("outlined").resolve(relative));
+        }
+        // An early exit only bounds the similarity from above, it was not measured
+        double similarity = diff.stoppedEarly() ? Double.NaN : diff.similarity();
+        return new PairResult(name, passed ? Status.PASSED : Status.FAILED, similarity, diff.prefiltered(),
+                diff.budgetExceeded(), regions);
+    }
+
+    private static void writeOutlined(Path actual, List<Rect> regions, Path target) {
+        Mat image = Imgcodecs.imread(actual.toString());
+        try {
+            for (Rect region : regions) {
+                Imgproc.rectangle(image, region, OUTLINE, 2);
+            }
+            Files.createDirectories(target.getParent());
+            Imgcodecs.imwrite(target.toString(), image);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot write {}: {}", target, e.getMessage());
+        } finally {
+            image.release();
+        }
+    }
+
+    private static List<Path> images(Path root) {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(BatchComparison::isImage)
+                    .map(root::relativize)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list " + root, e);
+        }
+    }
+
+    private static boolean isImage(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && IMAGE_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static void writeReport(Summary summary, Path expectedDir, Path actualDir, Path reportDir)
+            throws IOException {
+        Files.createDirectories(reportDir);
+        try (BufferedWriter json = Files.newBufferedWriter(reportDir.resolve("summary.json"),
+                StandardCharsets.UTF_8)) {
+            GSON.toJson(toJson(summary), json);
+        }
+        Path expectedRoot = reportDir.toAbsolutePath().relativize(expectedDir.toAbsolutePath());
+        Path actualRoot = reportDir.toAbsolutePath().relativize(actualDir.toAbsolutePath());
+        try (BufferedWriter html = Files.newBufferedWriter(reportDir.resolve("failures.html"),
+                StandardCharsets.UTF_8)) {
+            html.write("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Visual comparison failures</title>"
+                    + STYLE + "</head><body><p>" + summary.total() + " images compared in " + summary.millis()
+                    + " ms: " + escape(summary.counts().toString()) + "</p>");
+            for (PairResult result : summary.results()) {
+                if (result.status() == Status.PASSED) {
+                    continue;
+                }
+                String name = escape(result.path());
+                html.write("<h2>" + name + " &middot; " + result.status());
+                if (result.status() == Status.FAILED) {
+                    html.write(Double.isNaN(result.similarity())
+                            ? " &middot; similarity below threshold, diff stopped early"
+                            : String.format(Locale.ROOT, " &middot; similarity %.4f", result.similarity()));
+                }
+                html.write("</h2>");
+                if (result.status() != Status.MISSING_BASELINE) {
+                    html.write(image(expectedRoot, result.path()));
+                }
+                if (result.status() != Status.MISSING_ACTUAL) {
+                    html.write(image(actualRoot, result.path()));
+                }
+                if (result.status() == Status.FAILED) {
+                    html.write(image(Path.of("outlined"), result.path()));
+                }
+            }
+            html.write("</body></html>");
+        }
+    }
+
+    private static Map<String, Object> toJson(Summary summary) {
+        List<Map<String, Object>> results = new ArrayList<>(summary.results().size());
+        for (PairResult result : summary.results()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("path", result.path());
+            entry.put("status", result.status().name());
+            entry.put("similarity", Double.isNaN(result.similarity()) ? null : result.similarity());
+            entry.put("prefiltered", result.prefiltered());
+            entry.put("budgetExceeded", result.budgetExceeded());
+            entry.put("changedRegions", result.changedRegions());
+            results.add(entry);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("expectedDir", summary.expectedDir());
+        json.put("actualDir", summary.actualDir());
+        json.put("threshold", summary.threshold());
+        json.put("total", summary.total());
+        json.put("counts", summary.counts());
+        json.put("millis", summary.millis());
+        json.put("results", results);
+        return json;
+    }
+
+    private static String image(Path root, String path) {
+        String src = escape(root.toString().replace('\\', '/') + "/" + path);
+        return "<a href=\"" + src + "\"><img src=\"" + src + "\" loading=\"lazy\"></a>";
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * Outcome for one relative path.
+     *
+     * @param similarity     {@code NaN} unless both images were compared, also when the diff stopped early
+     * @param budgetExceeded more pixels changed than the threshold allows
+     * @param changedRegions {@code [x, y, width, height]} of each changed area of the actual image
+     */
+    public record PairResult(String path, Status status, double similarity, boolean prefiltered,
+                             boolean budgetExceeded, List<int[]> changedRegions) {
+    }
+
+    public record Summary(String expectedDir, String actualDir, double threshold, int total,
+                          Map<Status, Integer> counts, long millis, List<PairResult> results) {
+        public int count(Status status) {
+            return counts.getOrDefault(status, 0);
+        }
+
+        public boolean allPassed() {
+            return count(Status.PASSED) == total;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ai;
+
+import base.HealeniumWebDriverFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.firefox.HasFullPageScreenshot;
+import org.openqa.selenium.json.Json;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-page screenshots without resizing the window. Chromium browsers render the whole page in one
+ * {@code Page.captureScreenshot} call with {@code captureBeyondViewport}; Firefox has a native full-page
+ * screenshot. Other drivers scroll through the page one viewport at a time and the viewport captures are
+ * copied into a canvas allocated once for the full page size.
+ */
+public final class FullPageCapture {
+    private static final Logger LOGGER = LogManager.getLogger(FullPageCapture.class);
+    private static final String PAGE_METRICS_SCRIPT = "return [document.documentElement.scrollHeight,"
+            + " window.innerHeight, window.devicePixelRatio || 1, window.scrollX, window.scrollY];";
+    // Browsers refuse to render images taller than this many device pixels
+    private static final int MAX_HEIGHT = 16384;
+
+    private FullPageCapture() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Captures the whole page as PNG bytes.
+     */
+    public static Capture capture(WebDriver driver) {
+        long start = System.nanoTime();
+        WebDriver delegate = HealeniumWebDriverFactory.unwrap(driver);
+        Capture capture;
+        Optional<byte[]> cdp = captureOverCdp(delegate);
+        if (cdp.isPresent()) {
+            capture = new Capture(cdp.get(), "cdp", 1, elapsedMillis(start));
+        } else if (delegate instanceof HasFullPageScreenshot) {
+            byte[] png = ((HasFullPageScreenshot) delegate).getFullPageScreenshotAs(OutputType.BYTES);
+            capture = new Capture(png, "firefox", 1, elapsedMillis(start));
+        } else {
+            capture = stitch(driver, start);
+        }
+        LOGGER.info("Full page screenshot via {} ({} tiles) in {} ms", capture.method(), capture.tiles(),
+                capture.millis());
+        return capture;
+    }
+
+    private static Optional<byte[]> captureOverCdp(WebDriver delegate) {
+        if (!(delegate instanceof HasDevTools)) {
+            return Optional.empty();
+        }
+        try {
+            Optional<DevTools> maybeDevTools = ((HasDevTools) delegate).maybeGetDevTools();
+            if (maybeDevTools.isEmpty()) {
+                return Optional.empty();
+            }
+            DevTools devTools = maybeDevTools.get();
+            devTools.createSessionIfThereIsNotOne();
+            Map<String, Object> metrics = devTools.send(command("Page.getLayoutMetrics", Map.of()));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> contentSize = (Map<String, Object>) metrics.get("cssContentSize");
+            Map<String, Object> clip = Map.of("x", 0, "y", 0,
+                    "width", ((Number) contentSize.get("width")).doubleValue(),
+                    "height", ((Number) contentSize.get("height")).doubleValue(), "scale", 1);
+            Map<String, Object> result = devTools.send(command("Page.captureScreenshot",
+                    Map.of("format", "png", "captureBeyondViewport", true, "fromSurface", true, "clip", clip)));
+            return Optional.of(Base64.getDecoder().decode((String) result.get("data")));
+        } catch (Exception e) {
+            LOGGER.warn("CDP full page screenshot failed, stitching viewports: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Capture stitch(WebDriver driver, long start) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        List<?> metrics = (List<?>) js.executeScript(PAGE_METRICS_SCRIPT);
+        int pageHeight = ((Number) metrics.get(0)).intValue();
+        int viewportHeight = Math.max(1, ((Number) metrics.get(1)).intValue());
+        double scale = ((Number) metrics.get(2)).doubleValue();
+        Object originalX = metrics.get(3);
+        Object originalY = metrics.get(4);
+
+        Mat canvas = null;
+        int tiles = 0;
+        try {
+            for (int y = 0; ; y += viewportHeight) {
+                Number scrolledTo = (Number) js.executeScript(
+                        "window.scrollTo(0, arguments[0]); return window.scrollY;", y);
+                Mat viewport = decode(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES));
+                try {
+                    if (canvas == null) {
+                        int height = Math.max(viewport.rows(), (int) Math.round(pageHeight * scale));
+                        canvas = new Mat(Math.min(MAX_HEIGHT, height), viewport.cols(), CvType.CV_8UC3);
+                    }
+                    int top = (int) Math.round(scrolledTo.doubleValue() * scale);
+                    int rows = Math.min(viewport.rows(), canvas.rows() - top);
+                    int columns = Math.min(viewport.cols(), canvas.cols());
+                    if (rows > 0) {
+                        Mat source = viewport.submat(new Rect(0, 0, columns, rows));
+                        Mat target = canvas.submat(new Rect(0, top, columns, rows));
+                        source.copyTo(target);
+                        source.release();
+                        target.release();
+                    }
+                    tiles++;
+                    if (top + viewport.rows() >= canvas.rows() || y + viewportHeight >= pageHeight) {
+                        break;
+                    }
+                } finally {
+                    viewport.release();
+                }
+            }
+            MatOfByte png = new MatOfByte();
+            Imgcodecs.imencode(".png", canvas, png);
+            byte[] bytes = png.toArray();
+            png.release();
+            return new Capture(bytes, "stitched", tiles, elapsedMillis(start));
+        } finally {
+            if (canvas != null) {
+                canvas.release();
+            }
+            js.executeScript("window.scrollTo(arguments[0], arguments[1]);", originalX, originalY);
+        }
+    }
+
+    private static Mat decode(byte[] png) {
+        MatOfByte encoded = new MatOfByte(png);
+        try {
+            Mat image = Imgcodecs.imdecode(encoded, Imgcodecs.IMREAD_COLOR);
+            if (image.empty()) {
+                throw new IllegalStateException("Viewport screenshot could not be decoded");
+            }
+            return image;
+        } finally {
+            encoded.release();
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Command<Map<String, Object>> command(String method, Map<String, Object> params) {
+        return new Command<>(method, params, input -> (Map<String, Object>) input.read(Json.MAP_TYPE));
+    }
+
+    /**
+     * A full-page screenshot and how it was taken.
+     *
+     * @param method {@code cdp}, {@code firefox} or {@code stitched}
+     * @param tiles  viewport captures the image was assembled from
+     */
+    public record Capture(byte[] png, String method, int tiles, long millis) {
+    }
+}
@@ -0,0 +1,49 @@
+package ai;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencv.core.Mat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a comparison may skip the pixel diff because the dHash of the actual image is within
+ * {@code maxDistance} bits of the baseline's. The hash is 9x8 pixels, so a change confined to a small area
+ * (a label, an icon, a colour) can leave it unchanged: a skipped comparison matches whatever the threshold, and
+ * its similarity is not measured. Disabled unless a suite opts in.
+ */
+final class HashPrefilter {
+    private static final Logger LOGGER = LogManager.getLogger(HashPrefilter.class);
+
+    private final boolean enabled;
+    private final int maxDistance;
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    HashPrefilter(boolean enabled, int maxDistance) {
+        this.enabled = enabled;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * @param baselineHash dHash of the baseline, of the same size as {@code actualImage}
+     * @return whether the pixel diff can be skipped; always {@code false} when disabled
+     */
+    boolean skipsDiff(long baselineHash, Mat actualImage) {
+        if (!enabled) {
+            return false;
+        }
+        checks.incrementAndGet();
+        int distance = ImageHash.distance(baselineHash, ImageHash.dHash(actualImage));
+        if (distance > maxDistance) {
+            return false;
+        }
+        hits.incrementAndGet();
+        LOGGER.debug("Prefilter passed at hash distance {}", distance);
+        return true;
+    }
+
+    OpenCVUtil.PrefilterStats stats() {
+        return new OpenCVUtil.PrefilterStats(checks.get(), hits.get());
+    }
+}
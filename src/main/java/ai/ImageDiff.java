@@ -0,0 +1,287 @@
+package ai;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tiled pixel diff. Both images are split into square tiles that are diffed in parallel; a pixel counts as
+ * changed when its grey-level difference exceeds {@value #PIXEL_DIFF_THRESHOLD}. Tiles not yet started are
+ * skipped once the changed pixels exceed the budget implied by the required similarity, so a clearly different
+ * full-page screenshot costs a fraction of a full diff.
+ * <p>
+ * Ignore regions (ads, clocks) are excluded from both the changed and the compared pixels. When the images differ
+ * in size the overlapping area is diffed and everything outside it counts as changed.
+ */
+public final class ImageDiff {
+    static final int PIXEL_DIFF_THRESHOLD = 30;
+
+    private final MatScratchPool scratchPool;
+    private final ForkJoinPool pool;
+    private final int tileSize;
+
+    public ImageDiff(MatScratchPool scratchPool, ForkJoinPool pool, int tileSize) {
+        this.scratchPool = scratchPool;
+        this.pool = pool;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Diffs two images of the same type.
+     *
+     * @param minSimilarity similarity below which the result is a failure; the diff may stop early once that is
+     *                      certain, pass 0 to always diff every tile
+     * @param ignoreRegions regions of the expected image to leave out of the comparison
+     */
+    public Result diff(Mat expectedImage, Mat actualImage, double minSimilarity, List<Rect> ignoreRegions) {
+        if (expectedImage.type() != actualImage.type()) {
+            throw new IllegalArgumentException("Image types differ: expected "
+                    + CvType.typeToString(expectedImage.type()) + ", actual " + CvType.typeToString(actualImage.type()));
+        }
+        int width = Math.min(expectedImage.cols(), actualImage.cols());
+        int height = Math.min(expectedImage.rows(), actualImage.rows());
+        int canvasWidth = Math.max(expectedImage.cols(), actualImage.cols());
+        int canvasHeight = Math.max(expectedImage.rows(), actualImage.rows());
+
+        Mat mask = ignoreRegions.isEmpty() ? null : ignoreMask(width, height, ignoreRegions);
+        try {
+            long ignored = mask == null ? 0 : (long) width * height - Core.countNonZero(mask);
+            long compared = (long) canvasWidth * canvasHeight - ignored;
+            long budget = (long) Math.floor((1.0 - minSimilarity) * compared);
+
+            List<Rect> regions = new ArrayList<>();
+            if (canvasWidth > width) {
+                regions.add(new Rect(width, 0, canvasWidth - width, canvasHeight));
+            }
+            if (canvasHeight > height) {
+                regions.add(new Rect(0, height, width, canvasHeight - height));
+            }
+            long outside = (long) canvasWidth * canvasHeight - (long) width * height;
+
+            int columns = (width + tileSize - 1) / tileSize;
+            int rows = (height + tileSize - 1) / tileSize;
+            double[] heatmap = new double[rows * columns];
+            Arrays.fill(heatmap, Double.NaN);
+            Rect[] tileRegions = new Rect[rows * columns];
+            AtomicLong changed = new AtomicLong(outside);
+
+            if (outside <= budget && heatmap.length > 0) {
+                Tiles tiles = new Tiles(expectedImage, actualImage, mask, width, height, columns, budget, changed,
+                        heatmap, tileRegions, 0, heatmap.length);
+                if (heatmap.length == 1) {
+                    tiles.compute();
+                } else {
+                    pool.invoke(tiles);
+                }
+            }
+
+            for (Rect tileRegion : tileRegions) {
+                if (tileRegion != null) {
+                    regions.add(tileRegion);
+                }
+            }
+            long changedPixels = changed.get();
+            double similarity = compared == 0 ? 1.0 : 1.0 - (double) changedPixels / compared;
+            return new Result(similarity, changedPixels, compared, changedPixels > budget, mergeTouching(regions),
+                    new Heatmap(tileSize, rows, columns, heatmap), false);
+        } finally {
+            if (mask != null) {
+                mask.release();
+            }
+        }
+    }
+
+    private static Mat ignoreMask(int width, int height, List<Rect> ignoreRegions) {
+        Mat mask = new Mat(height, width, CvType.CV_8UC1, new Scalar(255));
+        Rect bounds = new Rect(0, 0, width, height);
+        for (Rect region : ignoreRegions) {
+            Rect clipped = intersect(region, bounds);
+            if (clipped != null) {
+                Mat roi = mask.submat(clipped);
+                roi.setTo(new Scalar(0));
+                roi.release();
+            }
+        }
+        return mask;
+    }
+
+    private static Rect intersect(Rect a, Rect b) {
+        int x = Math.max(a.x, b.x);
+        int y = Math.max(a.y, b.y);
+        int right = Math.min(a.x + a.width, b.x + b.width);
+        int bottom = Math.min(a.y + a.height, b.y + b.height);
+        return right > x && bottom > y ? new Rect(x, y, right - x, bottom - y) : null;
+    }
+
+    /**
+     * Merges rectangles that overlap or share an edge, so a change spanning several tiles is reported once.
+     */
+    static List<Rect> mergeTouching(List<Rect> rects) {
+        List<Rect> merged = new ArrayList<>(rects);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            outer:
+            for (int i = 0; i < merged.size(); i++) {
+                for (int j = i + 1; j < merged.size(); j++) {
+                    Rect a = merged.get(i);
+                    Rect b = merged.get(j);
+                    if (a.x <= b.x + b.width && b.x <= a.x + a.width
+                            && a.y <= b.y + b.height && b.y <= a.y + a.height) {
+                        int x = Math.min(a.x, b.x);
+                        int y = Math.min(a.y, b.y);
+                        merged.set(i, new Rect(x, y, Math.max(a.x + a.width, b.x + b.width) - x,
+                                Math.max(a.y + a.height, b.y + b.height) - y));
+                        merged.remove(j);
+                        changed = true;
+                        break outer;
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+
+    // Fork/join tasks are Serializable by inheritance only; tiles are never serialized
+    @SuppressWarnings("serial")
+    private final class Tiles extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Mat expected;
+        private final Mat actual;
+        private final Mat mask;
+        private final int width;
+        private final int height;
+        private final int columns;
+        private final long budget;
+        private final AtomicLong changed;
+        private final double[] heatmap;
+        private final Rect[] regions;
+        private final int from;
+        private final int to;
+
+        private Tiles(Mat expected, Mat actual, Mat mask, int width, int height, int columns, long budget,
+                      AtomicLong changed, double[] heatmap, Rect[] regions, int from, int to) {
+            this.expected = expected;
+            this.actual = actual;
+            this.mask = mask;
+            this.width = width;
+            this.height = height;
+            this.columns = columns;
+            this.budget = budget;
+            this.changed = changed;
+            this.heatmap = heatmap;
+            this.regions = regions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(split(from, middle), split(middle, to));
+                return;
+            }
+            if (changed.get() > budget) {
+                return;
+            }
+            int column = from % columns;
+            int row = from / columns;
+            Rect tile = new Rect(column * tileSize, row * tileSize,
+                    Math.min(tileSize, width - column * tileSize), Math.min(tileSize, height - row * tileSize));
+            diffTile(tile);
+        }
+
+        private Tiles split(int start, int end) {
+            return new Tiles(expected, actual, mask, width, height, columns, budget, changed, heatmap, regions,
+                    start, end);
+        }
+
+        private void diffTile(Rect tile) {
+            Mat expectedTile = expected.submat(tile);
+            Mat actualTile = actual.submat(tile);
+            Mat maskTile = mask == null ? null : mask.submat(tile);
+            try (MatScratchPool.Scratch scratch = scratchPool.borrow()) {
+                Core.absdiff(expectedTile, actualTile, scratch.diff());
+                if (scratch.diff().channels() > 1) {
+                    Imgproc.cvtColor(scratch.diff(), scratch.grey(), Imgproc.COLOR_BGR2GRAY);
+                } else {
+                    scratch.diff().copyTo(scratch.grey());
+                }
+                Imgproc.threshold(scratch.grey(), scratch.binary(), PIXEL_DIFF_THRESHOLD, 255, Imgproc.THRESH_BINARY);
+                long comparedPixels = (long) tile.width * tile.height;
+                if (maskTile != null) {
+                    Core.bitwise_and(scratch.binary(), maskTile, scratch.binary());
+                    comparedPixels = Core.countNonZero(maskTile);
+                }
+
+                int changedPixels = Core.countNonZero(scratch.binary());
+                heatmap[from] = comparedPixels == 0 ? 0 : (double) changedPixels / comparedPixels;
+                if (changedPixels > 0) {
+                    Rect bounds = Imgproc.boundingRect(scratch.binary());
+                    regions[from] = new Rect(tile.x + bounds.x, tile.y + bounds.y, bounds.width, bounds.height);
+                    changed.addAndGet(changedPixels);
+                }
+            } finally {
+                expectedTile.release();
+                actualTile.release();
+                if (maskTile != null) {
+                    maskTile.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Outcome of a diff. When {@code budgetExceeded} is set the diff stopped early: {@code changedPixels} then
+     * only covers the tiles diffed so far and {@code similarity} is an upper bound.
+     *
+     * @param changedRegions bounding boxes of changed areas in image coordinates, touching boxes merged
+     * @param prefiltered    the images passed the perceptual-hash prefilter and were not diffed pixel by pixel
+     */
+    public record Result(double similarity, long changedPixels, long comparedPixels, boolean budgetExceeded,
+                         List<Rect> changedRegions, Heatmap heatmap, boolean prefiltered) {
+        /**
+         * Result for images whose perceptual hashes are close enough to skip the pixel diff; similarity is not
+         * measured and reported as {@code NaN}.
+         */
+        static Result ofPrefilter(Mat image) {
+            return new Result(Double.NaN, 0, image.total(), false, List.of(), new Heatmap(0, 0, 0, new double[0]),
+                    true);
+        }
+
+        /**
+         * Whether tiles were skipped once the budget was exceeded, leaving {@code similarity} an upper bound.
+         */
+        public boolean stoppedEarly() {
+            return budgetExceeded && Arrays.stream(heatmap.changeRatios()).anyMatch(Double::isNaN);
+        }
+
+        /**
+         * Prefiltered results match without a measured similarity to hold against {@code minSimilarity}.
+         */
+        public boolean matches(double minSimilarity) {
+            return prefiltered || !budgetExceeded && similarity >= minSimilarity;
+        }
+    }
+
+    /**
+     * Share of changed pixels per tile, row by row; {@code NaN} for tiles skipped after the budget was exceeded.
+     */
+    public record Heatmap(int tileSize, int rows, int columns, double[] changeRatios) {
+        public double ratioAt(int row, int column) {
+            return changeRatios[row * columns + column];
+        }
+    }
+}
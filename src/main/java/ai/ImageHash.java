@@ -0,0 +1,68 @@
+package ai;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * 64-bit difference hash (dHash): the image is shrunk to 9x8 grey pixels and each bit records whether a pixel
+ * is brighter than its right neighbour. Visually similar images have hashes a small Hamming distance apart.
+ */
+public final class ImageHash {
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+
+    private ImageHash() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Hashes an encoded image (PNG, JPEG, ...). Requires {@link OpenCVLibrary#isAvailable()}.
+     */
+    public static long dHash(byte[] encodedImage) {
+        MatOfByte buffer = new MatOfByte(encodedImage);
+        Mat grey = Imgcodecs.imdecode(buffer, Imgcodecs.IMREAD_GRAYSCALE);
+        try {
+            if (grey.empty()) {
+                throw new IllegalArgumentException("Not a decodable image");
+            }
+            return dHash(grey);
+        } finally {
+            buffer.release();
+            grey.release();
+        }
+    }
+
+    /**
+     * Hashes an 8-bit grey or BGR image. Colour images are shrunk before conversion, so this costs one resize
+     * pass over the full image.
+     */
+    public static long dHash(Mat image) {
+        Mat small = new Mat();
+        try {
+            Imgproc.resize(image, small, new Size(HASH_WIDTH, HASH_HEIGHT), 0, 0, Imgproc.INTER_AREA);
+            if (small.channels() > 1) {
+                Imgproc.cvtColor(small, small, Imgproc.COLOR_BGR2GRAY);
+            }
+            byte[] pixels = new byte[HASH_WIDTH * HASH_HEIGHT];
+            small.get(0, 0, pixels);
+            long hash = 0;
+            for (int y = 0; y < HASH_HEIGHT; y++) {
+                for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                    int left = pixels[y * HASH_WIDTH + x] & 0xFF;
+                    int right = pixels[y * HASH_WIDTH + x + 1] & 0xFF;
+                    hash = (hash << 1) | (left > right ? 1 : 0);
+                }
+            }
+            return hash;
+        } finally {
+            small.release();
+        }
+    }
+
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+}
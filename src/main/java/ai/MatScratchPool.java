@@ -0,0 +1,123 @@
+package ai;
+
+import org.opencv.core.Mat;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reusable native scratch buffers for image comparison. Buffers are borrowed per call rather than held per
+ * thread, so thousands of virtual test threads share as many buffer sets as there are concurrent comparisons.
+ * OpenCV reallocates a destination {@link Mat} only when size or type change, so repeated comparisons of
+ * same-sized images allocate no native memory after warm-up.
+ * <p>
+ * At most {@code maxIdle} sets are kept; surplus sets are released as soon as they are returned.
+ */
+public final class MatScratchPool {
+    private final Deque<Scratch> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong transientBytes = new AtomicLong();
+    private final int maxIdle;
+
+    public MatScratchPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    public Scratch borrow() {
+        Scratch scratch = idle.pollFirst();
+        if (scratch == null) {
+            return new Scratch(this);
+        }
+        idleCount.decrementAndGet();
+        return scratch;
+    }
+
+    /**
+     * Registers a short-lived Mat, e.g. a decoded input image, so it shows up in {@link #getNativeBytesInUse()}
+     * until it is passed to {@link #release(Mat)}.
+     */
+    public Mat track(Mat mat) {
+        transientBytes.addAndGet(bytesOf(mat));
+        return mat;
+    }
+
+    public void release(Mat mat) {
+        if (mat != null) {
+            transientBytes.addAndGet(-bytesOf(mat));
+            mat.release();
+        }
+    }
+
+    /**
+     * Native bytes held by tracked inputs plus every scratch set, borrowed or idle, as of its last return.
+     */
+    public long getNativeBytesInUse() {
+        return pooledBytes.get() + transientBytes.get();
+    }
+
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    private void giveBack(Scratch scratch) {
+        long bytes = scratch.bytes();
+        pooledBytes.addAndGet(bytes - scratch.accountedBytes);
+        scratch.accountedBytes = bytes;
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offerFirst(scratch);
+        } else {
+            idleCount.decrementAndGet();
+            pooledBytes.addAndGet(-scratch.accountedBytes);
+            scratch.releaseAll();
+        }
+    }
+
+    static long bytesOf(Mat mat) {
+        return mat.empty() ? 0 : mat.total() * mat.elemSize();
+    }
+
+    /**
+     * One set of comparison buffers; return it with {@link #close()}.
+     */
+    public static final class Scratch implements AutoCloseable {
+        private final MatScratchPool pool;
+        private final Mat diff = new Mat();
+        private final Mat grey = new Mat();
+        private final Mat binary = new Mat();
+        private long accountedBytes;
+
+        private Scratch(MatScratchPool pool) {
+            this.pool = pool;
+        }
+
+        public Mat diff() {
+            return diff;
+        }
+
+        public Mat grey() {
+            return grey;
+        }
+
+        public Mat binary() {
+            return binary;
+        }
+
+        @Override
+        public void close() {
+            pool.giveBack(this);
+        }
+
+        private long bytes() {
+            return bytesOf(diff) + bytesOf(grey) + bytesOf(binary);
+        }
+
+        private void releaseAll() {
+            diff.release();
+            grey.release();
+            binary.release();
+        }
+    }
+}
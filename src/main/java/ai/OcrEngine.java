@@ -0,0 +1,233 @@
+package ai;
+
+import com.sun.jna.Pointer;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.TessAPI1;
+import net.sourceforge.tess4j.util.LoadLibs;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.openqa.selenium.Rectangle;
+import utils.GenericUtil;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OCR over a fixed set of Tesseract engines that are initialised once and reused. The tess4j {@code Tesseract}
+ * facade loads the traineddata again on every call, so engines are driven through the C API instead: each
+ * {@code TessBaseAPI} keeps its language model loaded until the JVM exits.
+ * <p>
+ * Input is preprocessed with OpenCV (grey, optional crop, upscale, Otsu threshold), which is what Tesseract
+ * needs to read small, anti-aliased UI text. Results are cached by the SHA-256 of the preprocessed pixels, so
+ * the same rendered text is recognised once per run.
+ */
+public final class OcrEngine implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger(OcrEngine.class);
+    private static final Properties CONFIG = GenericUtil.getConfig();
+    // Single uniform block of text; UI snippets rarely need page layout analysis
+    private static final int PAGE_SEG_MODE = ITessAPI.TessPageSegMode.PSM_SINGLE_BLOCK;
+
+    private final BlockingQueue<ITessAPI.TessBaseAPI> engines;
+    private final double upscale;
+    private final int cacheSize;
+    private final Map<String, Result> cache;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    public OcrEngine(int engineCount, int cacheSize) {
+        this(engineCount, cacheSize, tessdata(),
+                CONFIG.getProperty("ocr.language", "eng"),
+                Double.parseDouble(CONFIG.getProperty("ocr.upscale", "2")));
+    }
+
+    public OcrEngine(int engineCount, int cacheSize, String tessdata, String language, double upscale) {
+        if (!OpenCVLibrary.isAvailable()) {
+            throw new IllegalStateException("OCR preprocessing needs the OpenCV native library");
+        }
+        this.upscale = upscale;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+                return size() > OcrEngine.this.cacheSize;
+            }
+        };
+        this.engines = new ArrayBlockingQueue<>(engineCount);
+        long start = System.nanoTime();
+        for (int i = 0; i < engineCount; i++) {
+            ITessAPI.TessBaseAPI engine = TessAPI1.TessBaseAPICreate();
+            if (TessAPI1.TessBaseAPIInit3(engine, tessdata, language) != 0) {
+                TessAPI1.TessBaseAPIDelete(engine);
+                close();
+                throw new IllegalStateException("Tesseract could not load " + language + " from " + tessdata);
+            }
+            TessAPI1.TessBaseAPISetPageSegMode(engine, PAGE_SEG_MODE);
+            engines.add(engine);
+        }
+        LOGGER.info("Initialised {} Tesseract engines ({}) in {} ms", engineCount, language,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public static OcrEngine getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Recognises the text in an encoded image (PNG, JPEG, ...), limited to {@code region} when it is not
+     * {@code null}.
+     */
+    public Result read(byte[] encodedImage, Rectangle region) {
+        calls.incrementAndGet();
+        MatOfByte buffer = new MatOfByte(encodedImage);
+        Mat grey = Imgcodecs.imdecode(buffer, Imgcodecs.IMREAD_GRAYSCALE);
+        buffer.release();
+        Mat prepared = new Mat();
+        try {
+            if (grey.empty()) {
+                throw new IllegalArgumentException("Not a decodable image");
+            }
+            prepare(grey, region, prepared);
+            byte[] pixels = new byte[(int) prepared.total()];
+            prepared.get(0, 0, pixels);
+
+            if (cacheSize == 0) {
+                return recognise(pixels, prepared.cols(), prepared.rows());
+            }
+            String key = key(pixels, prepared.cols());
+            Result cached = cached(key);
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                return cached;
+            }
+            Result result = recognise(pixels, prepared.cols(), prepared.rows());
+            synchronized (cache) {
+                cache.put(key, result);
+            }
+            return result;
+        } finally {
+            grey.release();
+            prepared.release();
+        }
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    private void prepare(Mat grey, Rectangle region, Mat prepared) {
+        Mat source = grey;
+        if (region != null) {
+            Rect roi = new Rect(region.getX(), region.getY(), region.getWidth(), region.getHeight());
+            source = grey.submat(roi);
+        }
+        try {
+            if (upscale > 1) {
+                Imgproc.resize(source, prepared, new Size(), upscale, upscale, Imgproc.INTER_CUBIC);
+            } else {
+                source.copyTo(prepared);
+            }
+            Imgproc.threshold(prepared, prepared, 0, 255, Imgproc.THRESH_BINARY | Imgproc.THRESH_OTSU);
+        } finally {
+            if (source != grey) {
+                source.release();
+            }
+        }
+    }
+
+    private Result recognise(byte[] pixels, int width, int height) {
+        ByteBuffer image = ByteBuffer.allocateDirect(pixels.length);
+        image.put(pixels).flip();
+        ITessAPI.TessBaseAPI engine = borrow();
+        try {
+            TessAPI1.TessBaseAPISetImage(engine, image, width, height, 1, width);
+            Pointer text = TessAPI1.TessBaseAPIGetUTF8Text(engine);
+            try {
+                return new Result(text == null ? "" : text.getString(0, "UTF-8").trim(),
+                        TessAPI1.TessBaseAPIMeanTextConf(engine), false);
+            } finally {
+                if (text != null) {
+                    TessAPI1.TessDeleteText(text);
+                }
+                TessAPI1.TessBaseAPIClear(engine);
+            }
+        } finally {
+            engines.add(engine);
+        }
+    }
+
+    private ITessAPI.TessBaseAPI borrow() {
+        try {
+            return engines.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a Tesseract engine", e);
+        }
+    }
+
+    private Result cached(String key) {
+        synchronized (cache) {
+            Result result = cache.get(key);
+            return result == null ? null : new Result(result.text(), result.confidence(), true);
+        }
+    }
+
+    private static String key(byte[] pixels, int width) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(width).array());
+            return HexFormat.of().formatHex(digest.digest(pixels));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String tessdata() {
+        String configured = CONFIG.getProperty("ocr.tessdata", System.getenv("TESSDATA_PREFIX"));
+        return configured != null ? configured : LoadLibs.extractTessResources("tessdata").getPath();
+    }
+
+    /**
+     * Ends every idle engine; engines in use at the time are not returned to native memory.
+     */
+    @Override
+    public void close() {
+        ITessAPI.TessBaseAPI engine;
+        while ((engine = engines.poll()) != null) {
+            TessAPI1.TessBaseAPIEnd(engine);
+            TessAPI1.TessBaseAPIDelete(engine);
+        }
+    }
+
+    /**
+     * Recognised text and Tesseract's mean word confidence (0-100).
+     *
+     * @param cached the text came from the result cache
+     */
+    public record Result(String text, int confidence, boolean cached) {
+    }
+
+    private static final class Holder {
+        private static final OcrEngine INSTANCE = new OcrEngine(
+                Integer.parseInt(CONFIG.getProperty("ocr.engines",
+                        String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(CONFIG.getProperty("ocr.cacheSize", "1000")));
+    }
+}
@@ -0,0 +1,38 @@
+package ai;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencv.core.Core;
+
+/**
+ * Loads the OpenCV native library on first use: from {@code java.library.path} first, then from the natives
+ * bundled in the openpnp jar. Callers that can do without OpenCV check {@link #isAvailable()}.
+ */
+public final class OpenCVLibrary {
+    private static final Logger LOGGER = LogManager.getLogger(OpenCVLibrary.class);
+    private static final boolean AVAILABLE = load();
+
+    private OpenCVLibrary() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean load() {
+        try {
+            System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            LOGGER.debug("{} not on java.library.path, trying bundled natives", Core.NATIVE_LIBRARY_NAME);
+        }
+        try {
+            nu.pattern.OpenCV.loadLocally();
+            return true;
+        } catch (Throwable e) {
+            LOGGER.warn("OpenCV native library unavailable: {}", e.getMessage());
+            return false;
+        }
+    }
+}
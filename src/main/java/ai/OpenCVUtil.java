@@ -3,106 +3,279 @@ package ai;
 import org.apache.commons.io.FileUtils;
 import org.opencv.core.Core;
 import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
 import org.opencv.imgcodecs.Imgcodecs;
-import org.opencv.imgproc.Imgproc;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.*;
+import utils.GenericUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
 
 public class OpenCVUtil implements AIUtil {
     private static final Logger LOGGER = LogManager.getLogger(OpenCVUtil.class);
-    private static OpenCVUtil instance;
+    private static final Properties CONFIG = GenericUtil.getConfig();
 
     static {
-        try {
-            System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
-        } catch (UnsatisfiedLinkError e) {
-            String libraryPath = System.getProperty("java.library.path");
-            System.err.println("Native library path: " + libraryPath);
-            System.err.println("Trying to load library: " + Core.NATIVE_LIBRARY_NAME);
-            e.printStackTrace();
-            System.exit(1);
+        if (!OpenCVLibrary.isAvailable()) {
+            throw new IllegalStateException("OpenCV native library " + Core.NATIVE_LIBRARY_NAME
+                    + " could not be loaded, java.library.path=" + System.getProperty("java.library.path"));
         }
     }
 
+    private final MatScratchPool scratchPool = new MatScratchPool(Runtime.getRuntime().availableProcessors());
+    private final BaselineCache baselines = new BaselineCache(
+            Long.parseLong(CONFIG.getProperty("opencv.baselineCache.maxMegabytes", "256")) << 20);
+    private final ImageDiff imageDiff = new ImageDiff(scratchPool,
+            new ForkJoinPool(Integer.parseInt(CONFIG.getProperty("opencv.diff.parallelism",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())))),
+            Integer.parseInt(CONFIG.getProperty("opencv.diff.tileSize", "256")));
+    private final BatchComparison batchComparison = new BatchComparison(this,
+            Integer.parseInt(CONFIG.getProperty("opencv.batch.parallelism",
+                    String.valueOf(Runtime.getRuntime().availableProcessors()))));
+    private final TemplateLocator templateLocator = new TemplateLocator(
+            Arrays.stream(CONFIG.getProperty("opencv.locator.scales", "1.0").split(","))
+                    .mapToDouble(scale -> Double.parseDouble(scale.trim())).toArray(),
+            Double.parseDouble(CONFIG.getProperty("opencv.locator.minScore", "0.8")));
+    private final HashPrefilter prefilter = new HashPrefilter(
+            Boolean.parseBoolean(CONFIG.getProperty("opencv.prefilter", "false")),
+            Integer.parseInt(CONFIG.getProperty("opencv.prefilter.maxDistance", "0")));
+
     private OpenCVUtil() {
         // Private constructor to prevent instantiation
     }
 
-    public static synchronized OpenCVUtil getInstance() {
-        if (instance == null) {
-            instance = new OpenCVUtil();
-        }
-        return instance;
+    public static OpenCVUtil getInstance() {
+        return Holder.INSTANCE;
     }
 
     @Override
     public boolean compareImages(String expectedImagePath, String actualImagePath, double threshold) {
-        Mat expectedImage = Imgcodecs.imread(expectedImagePath);
-        Mat actualImage = Imgcodecs.imread(actualImagePath);
+        return isMatch(diffImages(expectedImagePath, actualImagePath, threshold, List.of()), threshold);
+    }
+
+    @Override
+    public boolean compareImages(String expectedImagePath, byte[] actualImage, double threshold) {
+        return isMatch(diffImages(expectedImagePath, actualImage, threshold, List.of()), threshold);
+    }
+
+    @Override
+    public BatchComparison.Summary compareDirectories(String expectedDir, String actualDir, double threshold,
+                                                      String reportDir) {
+        return batchComparison.run(Paths.get(expectedDir), Paths.get(actualDir), threshold, Paths.get(reportDir));
+    }
+
+    /**
+     * Diffs the image at {@code actualImagePath} against the cached baseline, leaving {@code ignoreRegions} out.
+     *
+     * @return the diff, or {@code null} if either image cannot be read or their types differ
+     */
+    public ImageDiff.Result diffImages(String expectedImagePath, String actualImagePath, double threshold,
+                                       List<Rect> ignoreRegions) {
+        Mat actualImage = scratchPool.track(Imgcodecs.imread(actualImagePath));
+        try {
+            return diffAgainstBaseline(expectedImagePath, actualImage, threshold, ignoreRegions);
+        } finally {
+            scratchPool.release(actualImage);
+        }
+    }
+
+    /**
+     * Like {@link #diffImages(String, String, double, List)}, but decodes the baseline outside the baseline cache,
+     * for baselines compared only once.
+     */
+    ImageDiff.Result diffImagesUncached(String expectedImagePath, String actualImagePath, double threshold) {
+        Mat actualImage = scratchPool.track(Imgcodecs.imread(actualImagePath));
+        try (BaselineCache.Lease baseline = baselines.acquireUncached(expectedImagePath)) {
+            return diffAgainst(baseline, actualImage, threshold, List.of());
+        } finally {
+            scratchPool.release(actualImage);
+        }
+    }
+
+    /**
+     * Diffs an encoded screenshot, e.g. from {@code OutputType.BYTES}, against the cached baseline.
+     *
+     * @return the diff, or {@code null} if either image cannot be read or their types differ
+     */
+    public ImageDiff.Result diffImages(String expectedImagePath, byte[] actualImage, double threshold,
+                                       List<Rect> ignoreRegions) {
+        MatOfByte encoded = new MatOfByte(actualImage);
+        Mat decoded = scratchPool.track(Imgcodecs.imdecode(encoded, Imgcodecs.IMREAD_COLOR));
+        try {
+            return diffAgainstBaseline(expectedImagePath, decoded, threshold, ignoreRegions);
+        } finally {
+            encoded.release();
+            scratchPool.release(decoded);
+        }
+    }
+
+    private ImageDiff.Result diffAgainstBaseline(String expectedImagePath, Mat actualImage, double threshold,
+                                                 List<Rect> ignoreRegions) {
+        try (BaselineCache.Lease baseline = baselines.acquire(expectedImagePath)) {
+            return diffAgainst(baseline, actualImage, threshold, ignoreRegions);
+        }
+    }
 
+    private ImageDiff.Result diffAgainst(BaselineCache.Lease baseline, Mat actualImage, double threshold,
+                                         List<Rect> ignoreRegions) {
+        Mat expectedImage = baseline.mat();
         if (expectedImage.empty() || actualImage.empty()) {
             LOGGER.error("Failed to read images");
+            return null;
+        }
+        if (expectedImage.type() != actualImage.type()) {
+            LOGGER.error("Image types differ: expected {}, actual {}", expectedImage.type(), actualImage.type());
+            return null;
+        }
+        if (!expectedImage.size().equals(actualImage.size())) {
+            LOGGER.warn("Image sizes differ: expected {}, actual {}", expectedImage.size(), actualImage.size());
+        }
+        if (ignoreRegions.isEmpty() && expectedImage.size().equals(actualImage.size())
+                && prefilter.skipsDiff(baseline.hash(), actualImage)) {
+            return ImageDiff.Result.ofPrefilter(actualImage);
+        }
+        return imageDiff.diff(expectedImage, actualImage, threshold, ignoreRegions);
+    }
+
+    private static boolean isMatch(ImageDiff.Result result, double threshold) {
+        if (result == null) {
             return false;
         }
+        if (result.prefiltered()) {
+            LOGGER.info("Image matches its baseline perceptual hash, similarity not measured");
+        } else if (result.budgetExceeded()) {
+            LOGGER.info("Image similarity below {}, diff stopped early", threshold);
+        } else {
+            LOGGER.info("Image similarity: {}", result.similarity());
+        }
+        return result.matches(threshold);
+    }
 
-        Mat diff = new Mat();
-        Core.absdiff(expectedImage, actualImage, diff);
+    /**
+     * Share of pixels whose grey-level difference stays below {@value ImageDiff#PIXEL_DIFF_THRESHOLD}. Both images
+     * must have the same type. Uses pooled scratch buffers, so no native memory outlives the call.
+     */
+    public double similarity(Mat expectedImage, Mat actualImage) {
+        return imageDiff.diff(expectedImage, actualImage, 0, List.of()).similarity();
+    }
 
-        Mat grayDiff = new Mat();
-        Imgproc.cvtColor(diff, grayDiff, Imgproc.COLOR_BGR2GRAY);
+    /**
+     * Native memory currently held by comparison buffers, decoded images and cached baselines.
+     */
+    public long getNativeBytesInUse() {
+        return scratchPool.getNativeBytesInUse() + baselines.getNativeBytesInUse();
+    }
 
-        Mat binaryDiff = new Mat();
-        Imgproc.threshold(grayDiff, binaryDiff, 30, 255, Imgproc.THRESH_BINARY);
+    public BaselineCache getBaselineCache() {
+        return baselines;
+    }
 
-        int totalPixels = binaryDiff.rows() * binaryDiff.cols();
-        int diffPixels = Core.countNonZero(binaryDiff);
+    public PrefilterStats getPrefilterStats() {
+        return prefilter.stats();
+    }
 
-        double similarity = 1.0 - (double) diffPixels / totalPixels;
+    /**
+     * Comparisons eligible for the perceptual-hash prefilter and how many of them skipped the pixel diff.
+     */
+    public record PrefilterStats(long checks, long hits) {
+        public double hitRate() {
+            return checks == 0 ? 0 : (double) hits / checks;
+        }
+    }
 
-        LOGGER.info("Image similarity: {}", similarity);
+    @Override
+    public boolean compareElementScreenshot(WebElement element, String expectedImagePath, String actualImagePath,
+                                            double threshold) {
+        byte[] actualImage = captureElementScreenshot(element);
+        boolean matching = compareImages(expectedImagePath, actualImage, threshold);
+        if (!matching) {
+            save(actualImage, actualImagePath);
+        }
+        return matching;
+    }
 
-        return similarity >= threshold;
+    @Override
+    public byte[] captureElementScreenshot(WebElement element) {
+        return element.getScreenshotAs(OutputType.BYTES);
     }
 
     @Override
     public void captureElementScreenshot(WebElement element, String outputPath) {
-        File screenshot = ((TakesScreenshot) element).getScreenshotAs(OutputType.FILE);
+        save(captureElementScreenshot(element), outputPath);
+    }
+
+    private static void save(byte[] png, String outputPath) {
         try {
-            FileUtils.copyFile(screenshot, new File(outputPath));
-            LOGGER.info("Element screenshot saved to: {}", outputPath);
+            FileUtils.writeByteArrayToFile(new File(outputPath), png);
+            LOGGER.info("Screenshot saved to: {}", outputPath);
         } catch (IOException e) {
-            LOGGER.error("Failed to save element screenshot", e);
+            LOGGER.error("Failed to save screenshot", e);
         }
     }
 
+    @Override
+    public byte[] captureFullPageScreenshot(WebDriver driver) {
+        return FullPageCapture.capture(driver).png();
+    }
+
     @Override
     public void captureFullPageScreenshot(WebDriver driver, String outputPath) {
-        // Scroll to the bottom of the page
-        JavascriptExecutor js = (JavascriptExecutor) driver;
-        js.executeScript("window.scrollTo(0, document.body.scrollHeight)");
+        save(captureFullPageScreenshot(driver), outputPath);
+    }
 
-        // Get the total height of the page
-        Long totalHeight = (Long) js.executeScript("return document.body.scrollHeight");
+    @Override
+    public OcrEngine.Result readText(byte[] image, Rectangle region) {
+        return OcrEngine.getInstance().read(image, region);
+    }
 
-        // Set the viewport size
-        js.executeScript("window.resizeTo(1366, " + totalHeight + ")");
+    @Override
+    public String readText(WebElement element) {
+        String text = readText(captureElementScreenshot(element), null).text();
+        LOGGER.info("OCR text: {}", text);
+        return text;
+    }
 
-        // Take the screenshot
-        File screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-        try {
-            FileUtils.copyFile(screenshot, new File(outputPath));
-            LOGGER.info("Full page screenshot saved to: {}", outputPath);
-        } catch (IOException e) {
-            LOGGER.error("Failed to save full page screenshot", e);
-        }
+    @Override
+    public Optional<TemplateLocator.Match> locateTemplate(byte[] screenshot, String templatePath,
+                                                         Rectangle searchRegion) {
+        return templateLocator.locate(screenshot, templatePath, searchRegion);
+    }
 
-        // Reset the viewport size
-        js.executeScript("window.resizeTo(1366, 768)");
+    @Override
+    public Optional<Point> locateInElement(WebElement element, String templatePath) {
+        Rectangle bounds = element.getRect();
+        return locateTemplate(captureElementScreenshot(element), templatePath, null).map(match -> {
+            double ratio = (double) match.imageWidth() / bounds.getWidth();
+            return new Point((int) Math.round(match.centreX() / ratio - bounds.getWidth() / 2.0),
+                    (int) Math.round(match.centreY() / ratio - bounds.getHeight() / 2.0));
+        });
+    }
+
+    @Override
+    public Optional<Point> locateOnPage(WebDriver driver, String templatePath, Rectangle searchRegion) {
+        // Screenshots are taken in device pixels
+        double ratio = ((Number) ((JavascriptExecutor) driver).executeScript("return window.devicePixelRatio || 1"))
+                .doubleValue();
+        Rectangle imageRegion = searchRegion == null ? null : new Rectangle(
+                (int) (searchRegion.getX() * ratio), (int) (searchRegion.getY() * ratio),
+                (int) Math.ceil(searchRegion.getHeight() * ratio), (int) Math.ceil(searchRegion.getWidth() * ratio));
+        byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        return locateTemplate(screenshot, templatePath, imageRegion).map(match -> new Point(
+                (int) Math.round(match.centreX() / ratio), (int) Math.round(match.centreY() / ratio)));
     }
 
     // Add more AI-enhanced image processing methods as needed
+
+    private static final class Holder {
+        private static final OpenCVUtil INSTANCE = new OpenCVUtil();
+    }
 }
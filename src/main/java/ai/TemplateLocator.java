@@ -0,0 +1,262 @@
+package ai;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.openqa.selenium.Rectangle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds a template image inside a screenshot. The search runs coarse-to-fine: the screenshot and the template are
+ * halved up to {@value #MAX_LEVELS} times, {@code matchTemplate} scans the whole (small) search area at the
+ * coarsest level, and the best hit is refined at full resolution in a window of a few pixels around it. A
+ * 1920x1080 screenshot is searched in milliseconds instead of the full-resolution scan's hundreds.
+ * <p>
+ * Templates can additionally be tried at several {@code scales}, for screenshots taken at a different zoom or
+ * device pixel ratio than the template. Template pyramids are built once per file and modification time and are
+ * reference counted, so a pyramid replaced after its file changed is released when the last search using it ends.
+ */
+public final class TemplateLocator {
+    private static final Logger LOGGER = LogManager.getLogger(TemplateLocator.class);
+    private static final int MAX_LEVELS = 3;
+    // Below this the coarse template has too little structure to match reliably
+    private static final int MIN_COARSE_SIDE = 12;
+
+    private final double[] scales;
+    private final double minScore;
+    private final Map<Path, Pyramids> templates = new HashMap<>();
+
+    public TemplateLocator(double[] scales, double minScore) {
+        this.scales = scales.clone();
+        this.minScore = minScore;
+    }
+
+    /**
+     * Locates {@code templatePath} in an encoded screenshot, within {@code searchRegion} (image pixels) unless it
+     * is {@code null}.
+     *
+     * @return the best match scoring at least the configured minimum, in screenshot pixels
+     */
+    public Optional<Match> locate(byte[] screenshot, String templatePath, Rectangle searchRegion) {
+        long start = System.nanoTime();
+        Pyramids pyramids = acquire(templatePath);
+        MatOfByte encoded = new MatOfByte(screenshot);
+        Mat image = Imgcodecs.imdecode(encoded, Imgcodecs.IMREAD_GRAYSCALE);
+        encoded.release();
+        List<Mat> imagePyramid = new ArrayList<>();
+        try {
+            if (image.empty()) {
+                throw new IllegalArgumentException("Not a decodable screenshot");
+            }
+            Rect region = searchRegion == null ? new Rect(0, 0, image.cols(), image.rows())
+                    : clip(searchRegion, image);
+            imagePyramid.add(image.submat(region));
+            Match best = null;
+            for (List<Mat> templatePyramid : pyramids.levels) {
+                Match match = search(imagePyramid, templatePyramid, region, image.cols());
+                if (match != null && (best == null || match.score() > best.score())) {
+                    best = match;
+                }
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (best == null || best.score() < minScore) {
+                LOGGER.info("Template {} not found (best score {}) in {} ms", templatePath,
+                        best == null ? "none" : String.format("%.3f", best.score()), millis);
+                return Optional.empty();
+            }
+            LOGGER.info("Template {} found at {},{} (score {}) in {} ms", templatePath, best.x(), best.y(),
+                    String.format("%.3f", best.score()), millis);
+            return Optional.of(best);
+        } finally {
+            imagePyramid.forEach(Mat::release);
+            image.release();
+            pyramids.unref();
+        }
+    }
+
+    private static Match search(List<Mat> imagePyramid, List<Mat> templatePyramid, Rect region, int imageWidth) {
+        Mat template = templatePyramid.get(0);
+        if (template.cols() > region.width || template.rows() > region.height) {
+            return null;
+        }
+        int level = templatePyramid.size() - 1;
+        while (imagePyramid.size() <= level) {
+            Mat smaller = new Mat();
+            Imgproc.pyrDown(imagePyramid.get(imagePyramid.size() - 1), smaller);
+            imagePyramid.add(smaller);
+        }
+
+        while (level > 0 && (templatePyramid.get(level).cols() > imagePyramid.get(level).cols()
+                || templatePyramid.get(level).rows() > imagePyramid.get(level).rows())) {
+            level--;
+        }
+
+        Core.MinMaxLocResult coarse = bestMatch(imagePyramid.get(level), templatePyramid.get(level));
+        if (level == 0) {
+            return new Match(region.x + (int) coarse.maxLoc.x, region.y + (int) coarse.maxLoc.y, template.cols(),
+                    template.rows(), coarse.maxVal, imageWidth);
+        }
+
+        // The coarse hit is accurate to one coarse pixel; refine in a window that covers it
+        int factor = 1 << level;
+        Mat full = imagePyramid.get(0);
+        int x = Math.max(0, (int) coarse.maxLoc.x * factor - factor);
+        int y = Math.max(0, (int) coarse.maxLoc.y * factor - factor);
+        int width = Math.min(full.cols() - x, template.cols() + 2 * factor);
+        int height = Math.min(full.rows() - y, template.rows() + 2 * factor);
+        if (width < template.cols() || height < template.rows()) {
+            return null;
+        }
+        Mat window = full.submat(new Rect(x, y, width, height));
+        try {
+            Core.MinMaxLocResult fine = bestMatch(window, template);
+            return new Match(region.x + x + (int) fine.maxLoc.x, region.y + y + (int) fine.maxLoc.y,
+                    template.cols(), template.rows(), fine.maxVal, imageWidth);
+        } finally {
+            window.release();
+        }
+    }
+
+    private static Core.MinMaxLocResult bestMatch(Mat image, Mat template) {
+        Mat scores = new Mat();
+        try {
+            Imgproc.matchTemplate(image, template, scores, Imgproc.TM_CCOEFF_NORMED);
+            return Core.minMaxLoc(scores);
+        } finally {
+            scores.release();
+        }
+    }
+
+    /**
+     * Returns the pyramids of {@code templatePath} with a reference held for the caller, to be dropped with
+     * {@link Pyramids#unref()} when the search is done.
+     */
+    private Pyramids acquire(String templatePath) {
+        Path path = Paths.get(templatePath).toAbsolutePath().normalize();
+        long modified;
+        try {
+            modified = Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Template " + path + " is not readable", e);
+        }
+        synchronized (this) {
+            Pyramids cached = templates.get(path);
+            if (cached != null && cached.modified == modified) {
+                cached.refs.incrementAndGet();
+                return cached;
+            }
+        }
+
+        // Built outside the lock so searches for other templates are not held up
+        Pyramids built = build(path, modified);
+        synchronized (this) {
+            Pyramids current = templates.get(path);
+            if (current != null && current.modified == modified) {
+                // Another thread built the same template first
+                current.refs.incrementAndGet();
+                built.unref();
+                return current;
+            }
+            if (current != null) {
+                current.unref();
+            }
+            built.refs.incrementAndGet();
+            templates.put(path, built);
+            return built;
+        }
+    }
+
+    private Pyramids build(Path path, long modified) {
+        Mat template = Imgcodecs.imread(path.toString(), Imgcodecs.IMREAD_GRAYSCALE);
+        if (template.empty()) {
+            throw new IllegalArgumentException("Template " + path + " could not be decoded");
+        }
+        List<List<Mat>> levels = new ArrayList<>(scales.length);
+        for (double scale : scales) {
+            Mat scaled = new Mat();
+            if (scale == 1.0) {
+                template.copyTo(scaled);
+            } else {
+                Imgproc.resize(template, scaled, new Size(), scale, scale,
+                        scale < 1 ? Imgproc.INTER_AREA : Imgproc.INTER_CUBIC);
+            }
+            List<Mat> pyramid = new ArrayList<>();
+            pyramid.add(scaled);
+            Mat level = scaled;
+            while (pyramid.size() <= MAX_LEVELS && Math.min(level.cols(), level.rows()) / 2 >= MIN_COARSE_SIDE) {
+                Mat smaller = new Mat();
+                Imgproc.pyrDown(level, smaller);
+                pyramid.add(smaller);
+                level = smaller;
+            }
+            levels.add(pyramid);
+        }
+        template.release();
+        return new Pyramids(modified, levels);
+    }
+
+    private static Rect clip(Rectangle region, Mat image) {
+        int x = Math.max(0, region.getX());
+        int y = Math.max(0, region.getY());
+        int right = Math.min(image.cols(), region.getX() + region.getWidth());
+        int bottom = Math.min(image.rows(), region.getY() + region.getHeight());
+        if (right <= x || bottom <= y) {
+            throw new IllegalArgumentException("Search region " + region + " is outside the screenshot");
+        }
+        return new Rect(x, y, right - x, bottom - y);
+    }
+
+    /**
+     * Template pyramids of one file: one pyramid per configured scale, full resolution first. The cache holds one
+     * reference and every running search another; the Mats are released when the last one is dropped.
+     */
+    private static final class Pyramids {
+        private final long modified;
+        private final List<List<Mat>> levels;
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        private Pyramids(long modified, List<List<Mat>> levels) {
+            this.modified = modified;
+            this.levels = levels;
+        }
+
+        private void unref() {
+            if (refs.decrementAndGet() == 0) {
+                levels.forEach(pyramid -> pyramid.forEach(Mat::release));
+            }
+        }
+    }
+
+    /**
+     * Top-left corner and size of a match in screenshot pixels, with its normalised correlation (up to 1).
+     *
+     * @param imageWidth width of the searched screenshot, to convert to CSS pixels
+     */
+    public record Match(int x, int y, int width, int height, double score, int imageWidth) {
+        public int centreX() {
+            return x + width / 2;
+        }
+
+        public int centreY() {
+            return y + height / 2;
+        }
+    }
+}
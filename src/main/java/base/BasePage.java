@@ -1,13 +1,12 @@
 package base;
 
 import org.openqa.selenium.By;
-import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.PageFactory;
-import org.openqa.selenium.support.ui.ExpectedCondition;
 import implementation.SeleniumActions;
 import com.aventstack.extentreports.Status;
 import utils.listeners.ExtentTestManager;
+import utils.readiness.PageReadiness;
 
 import java.time.Duration;
 import java.util.function.Supplier;
@@ -23,6 +22,7 @@ public abstract class BasePage {
     public BasePage(Supplier<WebDriver> driverSupplier) {
         this.driverSupplier = driverSupplier;
         this.actions = SeleniumActions.getInstance(driverSupplier);
+        actions.enterPage(getClass().getSimpleName());
         initializePage();
     }
 
@@ -52,11 +52,8 @@ public abstract class BasePage {
     // Default page loading mechanism
     protected void waitForPageLoad() {
         try {
-            // Wait for document ready state
-            waitForDocumentReady();
-
-            // Wait for AJAX calls to complete
-            waitForAjaxCalls();
+            // Wait for document ready state and outstanding AJAX/fetch calls
+            waitForPageReadiness();
 
             // Wait for page-specific element
             waitForPageSpecificElement();
@@ -74,42 +71,19 @@ public abstract class BasePage {
         }
     }
 
-    private void waitForDocumentReady() {
-        ExpectedCondition<Boolean> documentReady = driver -> {
-            JavascriptExecutor js = (JavascriptExecutor) driver;
-            return js.executeScript("return document.readyState").equals("complete");
-        };
-        actions.fluentWait(documentReady,
-                (int) DEFAULT_PAGE_LOAD_TIMEOUT.getSeconds(), 500);
-    }
-
-    private void waitForAjaxCalls() {
-        ExpectedCondition<Boolean> ajaxComplete = driver -> {
-            JavascriptExecutor js = (JavascriptExecutor) driver;
-            // jQuery AJAX calls check
-            boolean jQueryDone = (Boolean) js.executeScript(
-                    "return jQuery.active == 0 || typeof jQuery === 'undefined'");
-            // Angular HTTP calls check
-            boolean angularDone = (Boolean) js.executeScript(
-                    "return typeof angular === 'undefined' || " +
-                            "angular.element(document).injector() === undefined || " +
-                            "angular.element(document).injector().get('$http').pendingRequests.length === 0");
-            // Fetch API calls check (if possible to track)
-            boolean fetchDone = (Boolean) js.executeScript(
-                    "return window.fetchCallsInProgress === undefined || " +
-                            "window.fetchCallsInProgress === 0");
-
-            return jQueryDone && angularDone && fetchDone;
-        };
+    private void waitForPageReadiness() {
+        PageReadiness readiness = PageReadiness.forDriver(getDriver());
+        long start = System.nanoTime();
+        PageReadiness.Result result = readiness.awaitReady(DEFAULT_PAGE_LOAD_TIMEOUT, DEFAULT_AJAX_TIMEOUT);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
 
-        try {
-            actions.fluentWait(ajaxComplete,
-                    (int) DEFAULT_AJAX_TIMEOUT.getSeconds(), 500);
-        } catch (Exception e) {
-            // Log warning but don't fail - some pages might not use AJAX
+        if (!result.idle()) {
+            // Log warning but don't fail - some pages keep background requests open
             ExtentTestManager.getTest().log(Status.WARNING,
-                    "AJAX wait completed with potential pending requests");
+                    "AJAX wait completed with potential pending requests (" + result.busyProbe() + ")");
         }
+        ExtentTestManager.getTest().log(Status.INFO, String.format("%s ready in %d ms (%s, %d probe calls)",
+                this.getClass().getSimpleName(), elapsedMillis, readiness.getName(), result.probeCalls()));
     }
 
     private void waitForPageSpecificElement() {
@@ -3,12 +3,14 @@ package base;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.WebDriver;
+import org.testng.ITestResult;
 import org.testng.annotations.*;
+import utils.AdaptiveWait;
+import utils.waitstats.WaitStatistics;
 import utils.GenericUtil;
 
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
 
 public class BaseTest {
     protected static final ThreadLocal<WebDriver> threadLocalDriver = new ThreadLocal<>();
@@ -18,43 +20,29 @@ public class BaseTest {
     protected static final Logger LOGGER = LogManager.getLogger(BaseTest.class);
     private static WebDriverPool webDriverPool;
     private static final AtomicInteger driverCounter = new AtomicInteger(0);
-    private static final ReentrantLock setupLock = new ReentrantLock();
-    private static final ReentrantLock teardownLock = new ReentrantLock();
 
     @BeforeSuite(alwaysRun = true)
     public void setUpSuite() {
         config = GenericUtil.getPropertiesFile(CONFIG_PROP);
-        webDriverPool = new WebDriverPool(CustomThreadSafeDriver.DriverType.CHROME, 10, 5);
+        webDriverPool = WebDriverPool.fromConfig(CustomThreadSafeDriver.DriverType.CHROME, config);
+        webDriverPool.prewarm();
     }
 
     @BeforeMethod(alwaysRun = true)
-    public void setUp() throws Exception {
-        setupLock.lock();
-        try {
-            LOGGER.info("Setting up test method");
-            WebDriver driver = webDriverPool.borrowDriver();
-            threadLocalDriver.set(driver);
-            LOGGER.debug("DRIVER NAME = " + getDriverName());
-        } finally {
-            setupLock.unlock();
-        }
+    public void setUp(ITestResult result) throws Exception {
+        LOGGER.info("Setting up test method");
+        DriverLease lease = webDriverPool.lease(getOwnerName(result)).bindTo(result);
+        WebDriver driver = lease.getDriver();
+        threadLocalDriver.set(driver);
+        LOGGER.debug("DRIVER NAME = " + lease);
 
-        WebDriver driver = getDriver();
         driver.get(config.getProperty("DemoQAMainPageUrl"));
         driver.manage().window().maximize();
     }
 
     @AfterMethod(alwaysRun = true)
-    public void tearDown() {
-        WebDriver driver = threadLocalDriver.get();
-        if (driver != null) {
-            teardownLock.lock();
-            try {
-                webDriverPool.returnDriver(driver);
-            } finally {
-                teardownLock.unlock();
-            }
-        }
+    public void tearDown(ITestResult result) {
+        DriverLease.of(result).ifPresent(DriverLease::close);
         threadLocalDriver.remove();
     }
 
@@ -63,6 +51,8 @@ public class BaseTest {
         if (webDriverPool != null) {
             webDriverPool.close();
         }
+        AdaptiveWait.saveLearnedTimeouts();
+        WaitStatistics.saveAndReport();
     }
 
     protected WebDriver getDriver() {
@@ -70,7 +60,13 @@ public class BaseTest {
     }
 
     public String getDriverName() {
-        return getDriver().getClass().getSimpleName() + "-" + Thread.currentThread().getId();
+        return DriverLease.current()
+                .map(lease -> lease.getSession().toString())
+                .orElse("no-session");
+    }
+
+    private static String getOwnerName(ITestResult result) {
+        return result.getTestClass().getName() + "." + result.getMethod().getMethodName();
     }
 
     public static void incrementDriverCounter() {
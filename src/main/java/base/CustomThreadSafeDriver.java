@@ -8,36 +8,31 @@ import org.openqa.selenium.ie.InternetExplorerDriver;
 import java.util.function.Supplier;
 
 public class CustomThreadSafeDriver {
-    private static final ThreadLocal<WebDriver> DRIVERS = new ThreadLocal<>();
 
     private CustomThreadSafeDriver() {
         // Private constructor to prevent instantiation
     }
 
-    public static synchronized WebDriver getThreadSafeWebDriver(DriverType driverType) {
-        if (DRIVERS.get() == null) {
-            WebDriver driver = initializeDriver(driverType);
-            WebDriver healeniumDriver = HealeniumWebDriverFactory.wrapDriver(driver);
-            DRIVERS.set(healeniumDriver);
-            BaseTest.incrementDriverCounter();
-        }
-        return DRIVERS.get();
+    /**
+     * Starts a new Healenium-wrapped browser session. Only {@link WebDriverPool} creates sessions; tests obtain
+     * them through a {@link DriverLease}.
+     */
+    static WebDriver createDriver(DriverType driverType) {
+        WebDriver driver = initializeDriver(driverType);
+        WebDriver healeniumDriver = HealeniumWebDriverFactory.wrapDriver(driver);
+        BaseTest.incrementDriverCounter();
+        return healeniumDriver;
     }
 
     private static WebDriver initializeDriver(DriverType driverType) {
         return driverType.getDriverSupplier().get();
     }
 
+    /**
+     * Returns the driver leased to the test running on the current thread, or {@code null} outside a test.
+     */
     public static WebDriver getCurrentDriver() {
-        return DRIVERS.get();
-    }
-
-    public static void quitDriver() {
-        WebDriver driver = DRIVERS.get();
-        if (driver != null) {
-            driver.quit();
-            DRIVERS.remove();
-        }
+        return DriverLease.current().map(DriverLease::getDriver).orElse(null);
     }
 
     public enum DriverType {
@@ -55,4 +50,4 @@ public class CustomThreadSafeDriver {
             return driverSupplier;
         }
     }
-}
\ No newline at end of file
+}
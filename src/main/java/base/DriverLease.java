@@ -0,0 +1,80 @@
+package base;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Binds a pooled {@link DriverSession} to the test that is using it. The lease is stored on the test's
+ * {@link ITestResult}, so listeners and utilities resolve the session of the running test rather than
+ * whatever happens to be cached on the current OS thread.
+ */
+public final class DriverLease implements AutoCloseable {
+    private static final String RESULT_ATTRIBUTE = DriverLease.class.getName();
+
+    private final WebDriverPool pool;
+    private final DriverSession session;
+    private final String owner;
+    private final Instant leasedAt = Instant.now();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    DriverLease(WebDriverPool pool, DriverSession session, String owner) {
+        this.pool = pool;
+        this.session = session;
+        this.owner = owner;
+    }
+
+    /**
+     * Resolves the lease of the test currently executing on this thread, if any.
+     */
+    public static Optional<DriverLease> current() {
+        return of(Reporter.getCurrentTestResult());
+    }
+
+    public static Optional<DriverLease> of(ITestResult result) {
+        if (result == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((DriverLease) result.getAttribute(RESULT_ATTRIBUTE));
+    }
+
+    public DriverLease bindTo(ITestResult result) {
+        result.setAttribute(RESULT_ATTRIBUTE, this);
+        return this;
+    }
+
+    public WebDriver getDriver() {
+        return session.getDriver();
+    }
+
+    public DriverSession getSession() {
+        return session;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public Instant getLeasedAt() {
+        return leasedAt;
+    }
+
+    /**
+     * Hands the session back to the pool. Calling it more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (released.compareAndSet(false, true)) {
+            pool.release(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return session + " leased by " + owner;
+    }
+}
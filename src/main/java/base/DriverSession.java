@@ -0,0 +1,63 @@
+package base;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A browser session owned by {@link WebDriverPool}. Sessions outlive individual tests; tests only ever see
+ * them through a {@link DriverLease}.
+ */
+public final class DriverSession {
+    private static final Logger LOGGER = LogManager.getLogger(DriverSession.class);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final long id;
+    private final WebDriver driver;
+    private final Map<Class<?>, Object> attachments = new ConcurrentHashMap<>();
+
+    DriverSession(WebDriver driver) {
+        this.id = SEQUENCE.incrementAndGet();
+        this.driver = driver;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Returns the per-session helper of the given type, creating it on first use. Helpers live as long as the
+     * browser session, across leases; {@link AutoCloseable} helpers are closed when the session is destroyed.
+     */
+    public <T> T attachment(Class<T> type, Function<DriverSession, ? extends T> factory) {
+        return type.cast(attachments.computeIfAbsent(type, key -> factory.apply(this)));
+    }
+
+    void closeAttachments() {
+        attachments.values().forEach(attachment -> {
+            if (attachment instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    LOGGER.debug("Failed to close {} of {}: {}", attachment.getClass().getSimpleName(), this,
+                            e.getMessage());
+                }
+            }
+        });
+        attachments.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "session-" + id;
+    }
+}
@@ -11,4 +11,15 @@ public class HealeniumWebDriverFactory {
     public static WebDriver wrapDriver(WebDriver delegate) {
         return SelfHealingDriver.create(delegate);
     }
+
+    /**
+     * Returns the browser driver behind a Healenium proxy, for capabilities the proxy does not expose
+     * (DevTools, for example). Other drivers are returned unchanged.
+     */
+    public static WebDriver unwrap(WebDriver driver) {
+        if (driver instanceof SelfHealingDriver) {
+            return ((SelfHealingDriver) driver).getDelegate();
+        }
+        return driver;
+    }
 }
\ No newline at end of file
@@ -2,67 +2,283 @@ package base;
 
 import org.apache.commons.pool2.BasePooledObjectFactory;
 import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.PooledObjectState;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.WebDriver;
 
-import java.util.HashSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 public class WebDriverPool {
-    private final GenericObjectPool<WebDriver> pool;
-    private final Set<WebDriver> borrowedDrivers = new HashSet<>();
+    private static final Logger LOGGER = LogManager.getLogger(WebDriverPool.class);
+    private static final Duration EVICTION_RUN_INTERVAL = Duration.ofSeconds(30);
+
+    private final GenericObjectPool<DriverSession> pool;
+    private final Set<DriverLease> activeLeases = ConcurrentHashMap.newKeySet();
+    private final ExecutorService provisioner;
+    private final Semaphore sessionPermits;
+    private final int minIdle;
+    private final int maxUsesPerSession;
+    private final Duration maxSessionAge;
+    private volatile boolean closed;
+
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong totalCreationNanos = new AtomicLong();
+    private final AtomicLong maxCreationNanos = new AtomicLong();
+    private final AtomicLong evictedByUses = new AtomicLong();
+    private final AtomicLong evictedByAge = new AtomicLong();
+    private final AtomicLong evictedUnhealthy = new AtomicLong();
 
     public WebDriverPool(CustomThreadSafeDriver.DriverType driverType, int maxTotal, int maxIdle) {
-        pool = new GenericObjectPool<>(new WebDriverFactory(driverType));
+        this(driverType, maxTotal, maxIdle, 0, 0, Duration.ZERO);
+    }
+
+    /**
+     * Creates a pool that keeps at least {@code minIdle} browser sessions warm.
+     *
+     * @param maxUsesPerSession number of borrows after which a session is retired, 0 for unlimited
+     * @param maxSessionAge     age after which a session is retired, {@link Duration#ZERO} for unlimited
+     */
+    public WebDriverPool(CustomThreadSafeDriver.DriverType driverType, int maxTotal, int maxIdle, int minIdle,
+                         int maxUsesPerSession, Duration maxSessionAge) {
+        this(() -> CustomThreadSafeDriver.createDriver(driverType), maxTotal, maxIdle, minIdle,
+                maxUsesPerSession, maxSessionAge);
+    }
+
+    /**
+     * Creates a pool around an arbitrary session factory, e.g. a remote grid or a stub driver in benchmarks.
+     */
+    public WebDriverPool(Supplier<WebDriver> driverFactory, int maxTotal, int maxIdle, int minIdle,
+                         int maxUsesPerSession, Duration maxSessionAge) {
+        this.minIdle = Math.min(minIdle, maxIdle);
+        this.sessionPermits = new Semaphore(maxTotal, true);
+        this.maxUsesPerSession = maxUsesPerSession;
+        this.maxSessionAge = maxSessionAge;
+
+        pool = new GenericObjectPool<>(new DriverSessionFactory(driverFactory));
         pool.setMaxTotal(maxTotal);
         pool.setMaxIdle(maxIdle);
+        pool.setMinIdle(this.minIdle);
+        pool.setTestOnBorrow(true);
+        pool.setTestOnReturn(true);
+        pool.setTestWhileIdle(true);
+        pool.setTimeBetweenEvictionRuns(EVICTION_RUN_INTERVAL);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        provisioner = Executors.newFixedThreadPool(Math.max(1, this.minIdle), runnable -> {
+            Thread thread = new Thread(runnable, "webdriver-provisioner-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Builds a pool from the {@code pool.*} keys of the framework configuration.
+     */
+    public static WebDriverPool fromConfig(CustomThreadSafeDriver.DriverType driverType, Properties config) {
+        return new WebDriverPool(driverType,
+                Integer.parseInt(config.getProperty("pool.maxTotal", "10")),
+                Integer.parseInt(config.getProperty("pool.maxIdle", "5")),
+                Integer.parseInt(config.getProperty("pool.minIdle", "0")),
+                Integer.parseInt(config.getProperty("pool.maxUsesPerSession", "0")),
+                Duration.ofMinutes(Long.parseLong(config.getProperty("pool.maxSessionAgeMinutes", "0"))));
     }
 
-    public synchronized WebDriver borrowDriver() throws Exception {
-        WebDriver driver = pool.borrowObject();
-        borrowedDrivers.add(driver);
-        return driver;
+    /**
+     * Starts {@code minIdle} browser sessions on the provisioner threads without blocking the caller.
+     *
+     * @return a future completing once every pre-warm attempt has finished
+     */
+    public CompletableFuture<Void> prewarm() {
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[minIdle];
+        for (int i = 0; i < minIdle; i++) {
+            tasks[i] = CompletableFuture.runAsync(this::addIdleSession, provisioner);
+        }
+        LOGGER.info("Pre-warming {} browser session(s)", minIdle);
+        return CompletableFuture.allOf(tasks);
     }
 
-    public synchronized void returnDriver(WebDriver driver) {
-        if (borrowedDrivers.remove(driver)) {
-            pool.returnObject(driver);
+    /**
+     * Leases a session to {@code owner}. No pool-wide lock is held while a new browser is being started, so
+     * other threads keep leasing and releasing idle sessions in the meantime.
+     * <p>
+     * Callers queue fairly on a semaphore sized to {@code maxTotal} before touching the pool, so any number of
+     * (virtual) test threads can wait here while only {@code maxTotal} browsers are in use.
+     */
+    public DriverLease lease(String owner) throws Exception {
+        sessionPermits.acquire();
+        try {
+            DriverLease lease = new DriverLease(this, pool.borrowObject(), owner);
+            activeLeases.add(lease);
+            return lease;
+        } catch (Exception e) {
+            sessionPermits.release();
+            throw e;
         }
     }
 
-    public synchronized void close() {
-        for (WebDriver driver : borrowedDrivers) {
+    void release(DriverLease lease) {
+        if (activeLeases.remove(lease)) {
+            pool.returnObject(lease.getSession());
+            sessionPermits.release();
+        }
+    }
+
+    /**
+     * Number of threads currently waiting for a browser session.
+     */
+    public int getQueuedLeaseRequests() {
+        return sessionPermits.getQueueLength();
+    }
+
+    public void close() {
+        closed = true;
+        LOGGER.info("WebDriverPool stats at close: {}", getStats());
+        for (DriverLease lease : activeLeases) {
             try {
-                pool.invalidateObject(driver);
+                LOGGER.warn("Closing pool with active lease: {}", lease);
+                pool.invalidateObject(lease.getSession());
             } catch (Exception e) {
-                // Log the exception
+                LOGGER.warn("Failed to invalidate leased session on close", e);
             }
         }
-        borrowedDrivers.clear();
+        activeLeases.clear();
         pool.close();
+        provisioner.shutdown();
+        try {
+            if (!provisioner.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Provisioner did not finish quitting browser sessions in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Stats getStats() {
+        long created = createdCount.get();
+        return new Stats(
+                pool.getMeanBorrowWaitTimeMillis(),
+                pool.getMaxBorrowWaitTimeMillis(),
+                created == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalCreationNanos.get() / created),
+                TimeUnit.NANOSECONDS.toMillis(maxCreationNanos.get()),
+                created,
+                evictedByUses.get(),
+                evictedByAge.get(),
+                evictedUnhealthy.get(),
+                pool.getNumActive(),
+                pool.getNumIdle());
+    }
+
+    private void addIdleSession() {
+        if (closed) {
+            return;
+        }
+        try {
+            pool.addObject();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to provision browser session", e);
+        }
+    }
+
+    private void scheduleRefill() {
+        if (!closed && pool.getNumIdle() < minIdle) {
+            try {
+                provisioner.execute(this::addIdleSession);
+            } catch (Exception e) {
+                LOGGER.debug("Refill skipped, provisioner is shut down");
+            }
+        }
+    }
+
+    /**
+     * Snapshot of pool latency and eviction counters.
+     */
+    public record Stats(long meanBorrowWaitMillis, long maxBorrowWaitMillis, long meanCreationMillis,
+                        long maxCreationMillis, long created, long evictedByUses, long evictedByAge,
+                        long evictedUnhealthy, int active, int idle) {
     }
 
-    private static class WebDriverFactory extends BasePooledObjectFactory<WebDriver> {
-        private final CustomThreadSafeDriver.DriverType driverType;
+    private class DriverSessionFactory extends BasePooledObjectFactory<DriverSession> {
+        private final Supplier<WebDriver> driverFactory;
 
-        public WebDriverFactory(CustomThreadSafeDriver.DriverType driverType) {
-            this.driverType = driverType;
+        DriverSessionFactory(Supplier<WebDriver> driverFactory) {
+            this.driverFactory = driverFactory;
         }
 
         @Override
-        public WebDriver create() {
-            return CustomThreadSafeDriver.getThreadSafeWebDriver(driverType);
+        public DriverSession create() {
+            long start = System.nanoTime();
+            WebDriver driver = driverFactory.get();
+            long elapsed = System.nanoTime() - start;
+            createdCount.incrementAndGet();
+            totalCreationNanos.addAndGet(elapsed);
+            maxCreationNanos.accumulateAndGet(elapsed, Math::max);
+            DriverSession session = new DriverSession(driver);
+            LOGGER.debug("Created {} in {} ms", session, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return session;
         }
 
         @Override
-        public PooledObject<WebDriver> wrap(WebDriver driver) {
-            return new DefaultPooledObject<>(driver);
+        public PooledObject<DriverSession> wrap(DriverSession session) {
+            return new DefaultPooledObject<>(session);
         }
 
         @Override
-        public void destroyObject(PooledObject<WebDriver> p) {
-            p.getObject().quit();
+        public boolean validateObject(PooledObject<DriverSession> p) {
+            // Borrow validation sees the count of the lease being granted, return validation the one just finished
+            long uses = p.getBorrowedCount();
+            boolean returning = p.getState() == PooledObjectState.RETURNING;
+            if (maxUsesPerSession > 0 && (returning ? uses >= maxUsesPerSession : uses > maxUsesPerSession)) {
+                evictedByUses.incrementAndGet();
+                return false;
+            }
+            if (!maxSessionAge.isZero()
+                    && p.getCreateInstant().plus(maxSessionAge).isBefore(Instant.now())) {
+                evictedByAge.incrementAndGet();
+                return false;
+            }
+            try {
+                p.getObject().getDriver().getWindowHandle();
+                return true;
+            } catch (Exception e) {
+                LOGGER.warn("Evicting unhealthy {}: {}", p.getObject(), e.getMessage());
+                evictedUnhealthy.incrementAndGet();
+                return false;
+            }
+        }
+
+        @Override
+        public void destroyObject(PooledObject<DriverSession> p) {
+            if (closed) {
+                quit(p.getObject());
+                return;
+            }
+            // Quitting Chrome takes a while, keep it off the thread that returned the session
+            provisioner.execute(() -> quit(p.getObject()));
+            scheduleRefill();
+        }
+
+        private void quit(DriverSession session) {
+            session.closeAttachments();
+            try {
+                session.getDriver().quit();
+            } catch (Exception e) {
+                LOGGER.debug("Quitting browser session failed: {}", e.getMessage());
+            }
         }
     }
-}
\ No newline at end of file
+}
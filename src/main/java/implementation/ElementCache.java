@@ -0,0 +1,163 @@
+package implementation;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Resolved elements of one browser session, keyed by window, frame and locator. Validity follows a generation
+ * counter that a {@code MutationObserver} in the page increments on every structural or attribute change.
+ * <p>
+ * Reading the counter costs a round trip, so it is read only after something may have changed the page: an
+ * interaction, a wait, navigation or a context switch marks the cache dirty and the next lookup checks the counter
+ * first. Lookups in between, e.g. reading several outputs after one submit, cost no round trip at all. Scripts
+ * run through {@link #executeObserved} return the counter along with their result, which clears the dirty mark
+ * for free. A stale element that slips through is dropped by the caller via {@link #invalidate(By)}.
+ */
+public final class ElementCache {
+    private static final String GENERATION = "var s = window.__psfElementCache;"
+            + " if (!s) {"
+            + "   s = window.__psfElementCache = {doc: Math.random().toString(36).slice(2), generation: 0};"
+            + "   new MutationObserver(function () { s.generation++; })"
+            + "       .observe(document, {childList: true, subtree: true, attributes: true});"
+            + " }";
+    private static final String READ_GENERATION = GENERATION + " return [s.doc, s.generation];";
+
+    private static final AtomicLong TOTAL_HITS = new AtomicLong();
+    private static final AtomicLong TOTAL_MISSES = new AtomicLong();
+    private static final AtomicLong TOTAL_CHECKS = new AtomicLong();
+    private static final AtomicLong TOTAL_INVALIDATIONS = new AtomicLong();
+
+    private final Supplier<WebDriver> driverSupplier;
+    private final boolean enabled;
+    private final Map<String, Context> contexts = new ConcurrentHashMap<>();
+    private volatile String window = "";
+    private volatile String frame = "";
+    private volatile boolean dirty = true;
+
+    ElementCache(Supplier<WebDriver> driverSupplier, boolean enabled) {
+        this.driverSupplier = driverSupplier;
+        this.enabled = enabled;
+    }
+
+    WebElement lookup(By locator, Supplier<WebElement> resolver) {
+        if (!enabled) {
+            return resolver.get();
+        }
+        Context context = contexts.computeIfAbsent(window + "|" + frame, key -> new Context());
+        if (dirty) {
+            TOTAL_CHECKS.incrementAndGet();
+            observed(context, ((JavascriptExecutor) driverSupplier.get()).executeScript(READ_GENERATION));
+        }
+        WebElement element = context.elements.get(locator);
+        if (element != null) {
+            TOTAL_HITS.incrementAndGet();
+            return element;
+        }
+        TOTAL_MISSES.incrementAndGet();
+        element = resolver.get();
+        context.elements.put(locator, element);
+        return element;
+    }
+
+    /**
+     * Runs {@code script} as a function body and reads the generation counter in the same round trip. Only
+     * scripts that do not change the page may clear the dirty mark, mutations are observed asynchronously.
+     */
+    Object executeObserved(String script, boolean mutating, Object... args) {
+        JavascriptExecutor js = (JavascriptExecutor) driverSupplier.get();
+        if (!enabled) {
+            return js.executeScript(script, args);
+        }
+        List<?> result = (List<?>) js.executeScript(GENERATION + " var r = (function () {" + script
+                + "}).apply(null, arguments); return [r, s.doc, s.generation];", args);
+        if (mutating) {
+            dirty = true;
+        } else {
+            observed(contexts.computeIfAbsent(window + "|" + frame, key -> new Context()), result.subList(1, 3));
+        }
+        return result.get(0);
+    }
+
+    void invalidate(By locator) {
+        Context context = contexts.get(window + "|" + frame);
+        if (context != null && context.elements.remove(locator) != null) {
+            TOTAL_INVALIDATIONS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Something may have changed the page; the next lookup checks the generation counter.
+     */
+    void markDirty() {
+        dirty = true;
+    }
+
+    void switchedToWindow(String handle) {
+        window = Objects.requireNonNullElse(handle, "");
+        frame = "";
+        dirty = true;
+    }
+
+    void switchedToFrame(String frameName) {
+        frame = frame + "/" + frameName;
+        dirty = true;
+    }
+
+    void switchedToDefaultContent() {
+        frame = "";
+        dirty = true;
+    }
+
+    void clear() {
+        contexts.clear();
+        dirty = true;
+    }
+
+    private void observed(Context context, Object state) {
+        List<?> docAndGeneration = (List<?>) state;
+        String doc = (String) docAndGeneration.get(0);
+        long generation = ((Number) docAndGeneration.get(1)).longValue();
+        if (!doc.equals(context.doc) || generation != context.generation) {
+            if (!context.elements.isEmpty()) {
+                TOTAL_INVALIDATIONS.addAndGet(context.elements.size());
+                context.elements.clear();
+            }
+            context.doc = doc;
+            context.generation = generation;
+        }
+        dirty = false;
+    }
+
+    /**
+     * Lookups of all sessions since start-up: {@code hits} were answered from the cache, {@code checks} read the
+     * page's generation counter and {@code invalidations} counts elements dropped as possibly outdated.
+     */
+    public static Stats getStats() {
+        return new Stats(TOTAL_HITS.get(), TOTAL_MISSES.get(), TOTAL_CHECKS.get(), TOTAL_INVALIDATIONS.get());
+    }
+
+    public record Stats(long hits, long misses, long checks, long invalidations) {
+        public long lookups() {
+            return hits + misses;
+        }
+
+        public double hitRate() {
+            return lookups() == 0 ? 0 : (double) hits / lookups();
+        }
+    }
+
+    private static final class Context {
+        private final Map<By, WebElement> elements = new ConcurrentHashMap<>();
+        private volatile String doc;
+        private volatile long generation = -1;
+    }
+}
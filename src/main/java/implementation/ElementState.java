@@ -0,0 +1,22 @@
+package implementation;
+
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+import java.util.Map;
+
+/**
+ * State of one element as read by {@link SeleniumActions#readStates}, all taken in the same script execution.
+ * The values do not follow later changes of the page; {@code element} is there to act on the element afterwards.
+ *
+ * @param text       rendered text, as {@code innerText} with surrounding whitespace trimmed
+ * @param attributes requested attributes by name, {@code null} for attributes the element does not have
+ * @param rect       position in the document and size in CSS pixels, as {@link WebElement#getRect()}
+ */
+public record ElementState(WebElement element, String text, Map<String, String> attributes, boolean displayed,
+                           boolean enabled, boolean selected, Rectangle rect) {
+
+    public String attribute(String name) {
+        return attributes.get(name);
+    }
+}
@@ -0,0 +1,75 @@
+package implementation;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fields of a form and the values to put into them, filled by {@link SeleniumActions#fillForm(FormFill)}. Values
+ * are set by script unless the field is added with {@code typed}, for inputs whose app logic listens for key
+ * events (autocomplete, masked or character-counting inputs) rather than {@code input} and {@code change}.
+ */
+public final class FormFill {
+    private final List<Field> fields = new ArrayList<>();
+
+    /**
+     * A form of the given fields in iteration order, all filled by script.
+     */
+    public static FormFill of(Map<By, String> values) {
+        FormFill form = new FormFill();
+        values.forEach(form::field);
+        return form;
+    }
+
+    public FormFill field(By locator, String value) {
+        fields.add(new Field(locator, null, value, false));
+        return this;
+    }
+
+    public FormFill field(WebElement element, String value) {
+        fields.add(new Field(null, element, value, false));
+        return this;
+    }
+
+    public FormFill typed(By locator, String value) {
+        fields.add(new Field(locator, null, value, true));
+        return this;
+    }
+
+    public FormFill typed(WebElement element, String value) {
+        fields.add(new Field(null, element, value, true));
+        return this;
+    }
+
+    List<Field> fields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    @Override
+    public String toString() {
+        return fields.isEmpty() ? "form" : "form " + fields.get(0).describe() + " +" + (fields.size() - 1);
+    }
+
+    /**
+     * A field is given either by {@code locator} or as a resolved {@code element}.
+     */
+    record Field(By locator, WebElement element, String value, boolean typed) {
+        String describe() {
+            return locator != null ? locator.toString() : element.toString();
+        }
+    }
+
+    /**
+     * Time spent per phase of one fill: finding the fields, waiting once for all of them to be visible, and
+     * setting the values.
+     */
+    public record Report(int fields, int typed, long findMillis, long waitMillis, long fillMillis) {
+        public long totalMillis() {
+            return findMillis + waitMillis + fillMillis;
+        }
+    }
+}
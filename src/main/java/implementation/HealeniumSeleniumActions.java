@@ -4,63 +4,52 @@ import com.epam.healenium.SelfHealingDriver;
 import interfaces.*;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
-import java.time.Duration;
 import java.util.function.Supplier;
 
 public class HealeniumSeleniumActions extends SeleniumActions {
-    private final Supplier<WebDriver> driverSupplier;
-    private final WebDriverWait wait;
 
     private HealeniumSeleniumActions(Supplier<WebDriver> driverSupplier) {
         super(driverSupplier);
-        this.driverSupplier = driverSupplier;
-        this.wait = new WebDriverWait(driverSupplier.get(), Duration.ofSeconds(10));
     }
 
-    private static volatile HealeniumSeleniumActions instance;
-
     public static HealeniumSeleniumActions getInstance(Supplier<WebDriver> driverSupplier) {
-        if (instance == null) {
-            synchronized (HealeniumSeleniumActions.class) {
-                if (instance == null) {
-                    instance = new HealeniumSeleniumActions(driverSupplier);
-                }
-            }
-        }
-        return instance;
+        return forSession(driverSupplier, HealeniumSeleniumActions.class, HealeniumSeleniumActions::new);
     }
 
     @Override
-    public WebElement findElement(By locator) {
+    protected WebElement resolve(By locator) {
         try {
             return ((SelfHealingDriver) getDriver()).findElement(locator);
         } catch (Exception e) {
-            return super.findElement(locator);
+            return super.resolve(locator);
         }
     }
 
     @Override
-    public void click(WebElement element) {
+    protected void performClick(WebElement element) {
         try {
-            wait.until(ExpectedConditions.elementToBeClickable(element));
-            element.click();
+            timedWait("waitForElementClickable", element, wait, ExpectedConditions.elementToBeClickable(element));
+            timed("click", element, element::click);
         } catch (Exception e) {
-            JavascriptExecutor js = (JavascriptExecutor) getDriver();
-            js.executeScript("arguments[0].click();", element);
+            timed("click", element, () -> {
+                executeScript("arguments[0].click();", true, element);
+            });
         }
     }
 
     @Override
-    public void sendKeys(WebElement element, String text) {
+    protected void performSendKeys(WebElement element, String text) {
         try {
-            wait.until(ExpectedConditions.visibilityOf(element));
-            element.clear();
-            element.sendKeys(text);
+            timedWait("waitForElementVisible", element, wait, ExpectedConditions.visibilityOf(element));
+            timed("sendKeys", element, () -> {
+                element.clear();
+                element.sendKeys(text);
+            });
         } catch (Exception e) {
-            JavascriptExecutor js = (JavascriptExecutor) getDriver();
-            js.executeScript("arguments[0].value='" + text + "';", element);
+            timed("sendKeys", element, () -> {
+                executeScript("arguments[0].value = arguments[1];", true, element, text);
+            });
         }
     }
 }
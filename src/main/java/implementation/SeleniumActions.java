@@ -1,6 +1,9 @@
 package implementation;
 
+import base.DriverLease;
 import interfaces.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedCondition;
@@ -8,78 +11,180 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import utils.AdaptiveWait;
+import utils.GenericUtil;
+import utils.waitstats.WaitStatistics;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class SeleniumActions implements ElementActions, NavigationActions, ScrollActions, AdvancedActions, WaitActions,
         WindowTabActions {
-    private static volatile SeleniumActions instance;
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private static final boolean ELEMENT_CACHE_ENABLED = Boolean.parseBoolean(
+            GenericUtil.getConfig().getProperty("elementCache.enabled", "false"));
+    // One row per element: text, displayed, enabled, selected, x, y, width, height, then the requested attributes.
+    // Visibility approximates WebElement.isDisplayed: rendered boxes, not visibility:hidden, not fully transparent.
+    private static final String READ_STATES = "var names = arguments[1];"
+            + " return arguments[0].map(function (e) {"
+            + "   var style = window.getComputedStyle(e), r = e.getBoundingClientRect();"
+            + "   var row = [(e.innerText || e.textContent || '').trim(),"
+            + "       e.getClientRects().length > 0 && style.visibility !== 'hidden' && style.opacity !== '0',"
+            + "       !(e.matches && e.matches(':disabled')), !!(e.checked || e.selected),"
+            + "       r.left + window.scrollX, r.top + window.scrollY, r.width, r.height];"
+            + "   names.forEach(function (n) { row.push(e.getAttribute(n)); });"
+            + "   return row;"
+            + " });";
+    private static final String ALL_DISPLAYED = "return arguments[0].every(function (e) {"
+            + "   return e.getClientRects().length > 0 && window.getComputedStyle(e).visibility !== 'hidden';"
+            + " });";
+    // Sets values through the prototype's setter so frameworks tracking the value property (React) see the change
+    private static final String FILL_FIELDS = "var values = arguments[1];"
+            + " arguments[0].forEach(function (e, i) {"
+            + "   var type = e instanceof HTMLTextAreaElement ? HTMLTextAreaElement"
+            + "       : e instanceof HTMLSelectElement ? HTMLSelectElement : HTMLInputElement;"
+            + "   if (!(e instanceof type)) { throw new Error('Not a form field: ' + e.outerHTML.slice(0, 80)); }"
+            + "   e.focus();"
+            + "   Object.getOwnPropertyDescriptor(type.prototype, 'value').set.call(e, values[i]);"
+            + "   e.dispatchEvent(new Event('input', {bubbles: true}));"
+            + "   e.dispatchEvent(new Event('change', {bubbles: true}));"
+            + "   e.blur();"
+            + " });";
+    private static final Logger LOGGER = LogManager.getLogger(SeleniumActions.class);
     private final Supplier<WebDriver> driverSupplier;
-    private final WebDriverWait wait;
+    protected final WebDriverWait wait;
+    private final Map<Integer, WebDriverWait> waitsByTimeout = new ConcurrentHashMap<>();
+    private final Actions userActions;
+    private final ElementCache elementCache;
+    private volatile String page = WaitStatistics.NO_PAGE;
 
     SeleniumActions(Supplier<WebDriver> driverSupplier) {
         this.driverSupplier = driverSupplier;
-        this.wait = new WebDriverWait(driverSupplier.get(), Duration.ofSeconds(10));
+        WebDriver driver = driverSupplier.get();
+        this.wait = new WebDriverWait(driver, DEFAULT_TIMEOUT);
+        this.userActions = new Actions(driver);
+        this.elementCache = new ElementCache(driverSupplier, ELEMENT_CACHE_ENABLED);
     }
 
+    /**
+     * Returns the actions bound to the browser session behind {@code driverSupplier}. When the supplier
+     * resolves to the driver leased to the running test, the instance is cached on that session and shared by
+     * every page of the test; otherwise a new instance is bound to the supplier.
+     */
     public static SeleniumActions getInstance(Supplier<WebDriver> driverSupplier) {
-        if (instance == null) {
-            synchronized (SeleniumActions.class) {
-                if (instance == null) {
-                    instance = new SeleniumActions(driverSupplier);
-                }
-            }
-        }
-        return instance;
+        return forSession(driverSupplier, SeleniumActions.class, SeleniumActions::new);
+    }
+
+    protected static <T extends SeleniumActions> T forSession(Supplier<WebDriver> driverSupplier, Class<T> type,
+                                                              Function<Supplier<WebDriver>, T> factory) {
+        WebDriver driver = driverSupplier.get();
+        return DriverLease.current()
+                .filter(lease -> lease.getDriver() == driver)
+                .map(lease -> lease.getSession().attachment(type, session -> factory.apply(session::getDriver)))
+                .orElseGet(() -> factory.apply(driverSupplier));
     }
 
     public WebDriver getDriver() {
         return driverSupplier.get();
     }
 
+    /**
+     * Records the waits and interactions timed from now on against {@code pageName}. Page objects call this once
+     * when they are created, so timings go to the page object last created on the session.
+     */
+    public void enterPage(String pageName) {
+        this.page = pageName;
+    }
+
+    /**
+     * Times {@code action} into the wait statistics of the current page. Interactions are timed apart from the
+     * waits that precede them, so no time is counted twice.
+     */
+    protected <T> T timed(String operation, Object target, Supplier<T> action) {
+        return WaitStatistics.time(page, operation, target, action);
+    }
+
+    protected void timed(String operation, Object target, Runnable action) {
+        WaitStatistics.time(page, operation, target, action);
+    }
+
     // ElementActions implementation
+    /**
+     * Marks the element cache dirty and clicks via {@link #performClick}; subclasses change how the click is
+     * done, not the bookkeeping around it.
+     */
     @Override
-    public void click(WebElement element) {
+    public final void click(WebElement element) {
+        elementCache.markDirty();
+        performClick(element);
+    }
+
+    protected void performClick(WebElement element) {
         try {
-            WebElement clickableElement = AdaptiveWait.waitForElementClickable(getDriver(), element);
-            clickableElement.click();
+            WebElement clickableElement = timed("waitForElementClickable", element,
+                    () -> AdaptiveWait.waitForElementClickable(getDriver(), element));
+            timed("click", element, clickableElement::click);
         } catch (ElementClickInterceptedException e) {
-            ((JavascriptExecutor) getDriver()).executeScript("arguments[0].click();", element);
+            timed("click", element, () -> {
+                executeScript("arguments[0].click();", true, element);
+            });
         } catch (StaleElementReferenceException e) {
-            WebElement freshElement = AdaptiveWait.waitForElementClickable(getDriver(), element);
-            freshElement.click();
+            WebElement freshElement = timed("waitForElementClickable", element,
+                    () -> AdaptiveWait.waitForElementClickable(getDriver(), element));
+            timed("click", element, freshElement::click);
         }
     }
 
     @Override
     public void click(By locator) {
-        WebElement element = findElement(locator);
-        click(element);
+        withElement(locator, element -> {
+            click(element);
+            return null;
+        });
     }
 
+    /**
+     * Marks the element cache dirty and types via {@link #performSendKeys}.
+     */
     @Override
-    public void sendKeys(WebElement element, String text) {
+    public final void sendKeys(WebElement element, String text) {
+        elementCache.markDirty();
+        performSendKeys(element, text);
+    }
+
+    protected void performSendKeys(WebElement element, String text) {
         try {
-            wait.until(ExpectedConditions.visibilityOf(element));
-            element.clear();
-            element.sendKeys(text);
+            timedWait("waitForElementVisible", element, wait, ExpectedConditions.visibilityOf(element));
+            timed("sendKeys", element, () -> {
+                element.clear();
+                element.sendKeys(text);
+            });
         } catch (StaleElementReferenceException e) {
-            WebElement freshElement = wait.until(ExpectedConditions.refreshed(ExpectedConditions.visibilityOf(element)));
-            freshElement.clear();
-            freshElement.sendKeys(text);
+            WebElement freshElement = timedWait("waitForElementVisible", element, wait,
+                    ExpectedConditions.refreshed(ExpectedConditions.visibilityOf(element)));
+            timed("sendKeys", element, () -> {
+                freshElement.clear();
+                freshElement.sendKeys(text);
+            });
         }
     }
 
     @Override
     public void sendKeys(By locator, String text) {
-        WebElement element = findElement(locator);
-        sendKeys(element, text);
+        withElement(locator, element -> {
+            sendKeys(element, text);
+            return null;
+        });
     }
 
     @Override
@@ -89,7 +194,7 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
 
     @Override
     public String getText(By locator) {
-        return getText(findElement(locator));
+        return withElement(locator, this::getText);
     }
 
     @Override
@@ -99,7 +204,7 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
 
     @Override
     public boolean isDisplayed(By locator) {
-        return isDisplayed(findElement(locator));
+        return withElement(locator, this::isDisplayed);
     }
 
     @Override
@@ -109,7 +214,7 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
 
     @Override
     public boolean isEnabled(By locator) {
-        return isEnabled(findElement(locator));
+        return withElement(locator, this::isEnabled);
     }
 
     @Override
@@ -119,17 +224,150 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
 
     @Override
     public boolean isSelected(By locator) {
-        return isSelected(findElement(locator));
+        return withElement(locator, this::isSelected);
     }
 
+    /**
+     * Finds the element, answered from the session's element cache when {@code elementCache.enabled} is set
+     * and the page has not changed since the element was found.
+     * <p>
+     * The page is only checked for changes after an action through this class, so an element returned here can
+     * still go stale when the page changes on its own (timers, pushed updates). The {@code By} variants of the
+     * actions look the element up again in that case; callers holding on to the returned element do not get
+     * that recovery and should prefer them.
+     */
     @Override
     public WebElement findElement(By locator) {
+        return elementCache.lookup(locator, () -> timed("findElement", locator, () -> resolve(locator)));
+    }
+
+    /**
+     * Looks {@code locator} up in the browser, bypassing the element cache.
+     */
+    protected WebElement resolve(By locator) {
         return getDriver().findElement(locator);
     }
 
+    /**
+     * Runs {@code script} as a function body, keeping the element cache in step: {@code mutating} scripts mark
+     * it dirty, other scripts confirm it in the same round trip.
+     */
+    protected Object executeScript(String script, boolean mutating, Object... args) {
+        return elementCache.executeObserved(script, mutating, args);
+    }
+
+    /**
+     * Applies {@code action} to the element at {@code locator}, looking it up again once if a cached element
+     * turns out to be stale.
+     */
+    private <T> T withElement(By locator, Function<WebElement, T> action) {
+        try {
+            return action.apply(findElement(locator));
+        } catch (StaleElementReferenceException e) {
+            elementCache.invalidate(locator);
+            return action.apply(findElement(locator));
+        }
+    }
+
+    /**
+     * Reads text, {@code attributes}, visibility, enabled and selected state and position of all {@code elements}
+     * in one script execution instead of one command per element and property.
+     */
+    public List<ElementState> readStates(List<WebElement> elements, String... attributes) {
+        // A @FindBy list looks its elements up again on every access; resolve it once
+        List<WebElement> resolved = List.copyOf(elements);
+        if (resolved.isEmpty()) {
+            return List.of();
+        }
+        List<?> rows = timed("readStates", resolved.size() + " elements",
+                () -> (List<?>) elementCache.executeObserved(READ_STATES, false, resolved, List.of(attributes)));
+        List<ElementState> states = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            List<?> row = (List<?>) rows.get(i);
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int a = 0; a < attributes.length; a++) {
+                values.put(attributes[a], (String) row.get(8 + a));
+            }
+            states.add(new ElementState(resolved.get(i), (String) row.get(0), Collections.unmodifiableMap(values),
+                    (Boolean) row.get(1), (Boolean) row.get(2), (Boolean) row.get(3),
+                    new Rectangle(intOf(row.get(4)), intOf(row.get(5)), intOf(row.get(7)), intOf(row.get(6)))));
+        }
+        return Collections.unmodifiableList(states);
+    }
+
+    /**
+     * Like {@link #readStates(List, String...)} for all elements matching {@code locator}, in document order.
+     */
+    public List<ElementState> readStates(By locator, String... attributes) {
+        return readStates(getDriver().findElements(locator), attributes);
+    }
+
+    private static int intOf(Object number) {
+        return (int) Math.round(((Number) number).doubleValue());
+    }
+
+    /**
+     * Fills a form with one wait for all fields to be visible and one script execution for all scripted fields,
+     * instead of a visibility wait, {@code clear} and {@code sendKeys} per field. Typed fields are cleared and
+     * typed natively after the scripted ones. A stale cached field restarts the fill once with fresh lookups.
+     */
+    public FormFill.Report fillForm(FormFill form) {
+        try {
+            return fill(form);
+        } catch (StaleElementReferenceException e) {
+            form.fields().stream().map(FormFill.Field::locator).filter(Objects::nonNull)
+                    .forEach(elementCache::invalidate);
+            return fill(form);
+        }
+    }
+
+    private FormFill.Report fill(FormFill form) {
+        long start = System.nanoTime();
+        List<WebElement> elements = new ArrayList<>();
+        List<WebElement> scripted = new ArrayList<>();
+        List<String> scriptedValues = new ArrayList<>();
+        for (FormFill.Field field : form.fields()) {
+            WebElement element = field.element() != null ? field.element() : findElement(field.locator());
+            elements.add(element);
+            if (!field.typed()) {
+                scripted.add(element);
+                scriptedValues.add(field.value());
+            }
+        }
+        long found = System.nanoTime();
+        timedWait("waitForForm", form, wait,
+                driver -> (Boolean) elementCache.executeObserved(ALL_DISPLAYED, false, elements));
+        long visible = System.nanoTime();
+        timed("fillForm", form, () -> {
+            elementCache.markDirty();
+            if (!scripted.isEmpty()) {
+                elementCache.executeObserved(FILL_FIELDS, true, scripted, scriptedValues);
+            }
+            List<FormFill.Field> fields = form.fields();
+            for (int i = 0; i < fields.size(); i++) {
+                if (fields.get(i).typed()) {
+                    elements.get(i).clear();
+                    elements.get(i).sendKeys(fields.get(i).value());
+                }
+            }
+        });
+        long end = System.nanoTime();
+        FormFill.Report report = new FormFill.Report(elements.size(), elements.size() - scripted.size(),
+                TimeUnit.NANOSECONDS.toMillis(found - start), TimeUnit.NANOSECONDS.toMillis(visible - found),
+                TimeUnit.NANOSECONDS.toMillis(end - visible));
+        LOGGER.info("Filled {} fields ({} typed) in {} ms: find {} ms, wait {} ms, fill {} ms", report.fields(),
+                report.typed(), report.totalMillis(), report.findMillis(), report.waitMillis(), report.fillMillis());
+        return report;
+    }
+
+    public ElementCache.Stats getElementCacheStats() {
+        return ElementCache.getStats();
+    }
+
     // NavigationActions implementation
     @Override
     public void navigateToUrl(String url) {
+        elementCache.clear();
         getDriver().get(url);
     }
 
@@ -137,7 +375,7 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
     @Override
     public void scrollIntoView(WebElement element) {
         try {
-            ((JavascriptExecutor) getDriver()).executeScript("arguments[0].scrollIntoView(true);", element);
+            elementCache.executeObserved("arguments[0].scrollIntoView(true);", false, element);
         } catch (Exception e) {
             // Log the exception
         }
@@ -145,13 +383,17 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
 
     @Override
     public void scrollIntoView(By locator) {
-        scrollIntoView(findElement(locator));
+        withElement(locator, element -> {
+            scrollIntoView(element);
+            return null;
+        });
     }
 
     // AdvancedActions implementation
     @Override
     public void hoverOverElement(WebElement element) {
-        new Actions(getDriver()).moveToElement(element).perform();
+        elementCache.markDirty();
+        userActions.moveToElement(element).perform();
     }
 
     @Override
@@ -161,7 +403,8 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
 
     @Override
     public void doubleClick(WebElement element) {
-        new Actions(getDriver()).doubleClick(element).perform();
+        elementCache.markDirty();
+        userActions.doubleClick(element).perform();
     }
 
     @Override
@@ -171,7 +414,8 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
 
     @Override
     public void dragAndDrop(WebElement source, WebElement target) {
-        new Actions(getDriver()).dragAndDrop(source, target).perform();
+        elementCache.markDirty();
+        userActions.dragAndDrop(source, target).perform();
     }
 
     @Override
@@ -179,49 +423,79 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
         dragAndDrop(findElement(source), findElement(target));
     }
 
+    /**
+     * Clicks at an offset in CSS pixels from the centre of {@code element}, e.g. a point found in a canvas by
+     * {@link ai.AIUtil#locateInElement}.
+     */
+    @Override
+    public void clickAt(WebElement element, int xOffset, int yOffset) {
+        elementCache.markDirty();
+        userActions.moveToElement(element, xOffset, yOffset).click().perform();
+    }
+
+    /**
+     * Clicks at a viewport position in CSS pixels, e.g. one found by {@link ai.AIUtil#locateOnPage}.
+     */
+    @Override
+    public void clickAt(int x, int y) {
+        elementCache.markDirty();
+        userActions.moveToLocation(x, y).click().perform();
+    }
+
     // WaitActions implementation
     @Override
     public void waitForElementVisible(By locator, int timeoutInSeconds) {
-        new WebDriverWait(getDriver(), Duration.ofSeconds(timeoutInSeconds))
-                .until(ExpectedConditions.visibilityOfElementLocated(locator));
+        timedWait("waitForElementVisible", locator, waitFor(timeoutInSeconds),
+                ExpectedConditions.visibilityOfElementLocated(locator));
     }
 
     @Override
     public void waitForElementVisible(By locator) {
-        wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+        timedWait("waitForElementVisible", locator, wait, ExpectedConditions.visibilityOfElementLocated(locator));
     }
 
     @Override
     public void waitForElementVisible(WebElement element) {
-        wait.until(ExpectedConditions.visibilityOf(element));
+        timedWait("waitForElementVisible", element, wait, ExpectedConditions.visibilityOf(element));
     }
 
     @Override
     public void waitForElements(ExpectedCondition<List<WebElement>> condition) {
-        wait.until(condition);
+        timedWait("waitForElements", condition, wait, condition);
     }
 
     @Override
     public void waitForElement(ExpectedCondition<WebElement> condition) {
-        wait.until(condition);
+        timedWait("waitForElement", condition, wait, condition);
     }
 
     @Override
     public void waitForElementClickable(By locator, int timeoutInSeconds) {
-        new WebDriverWait(getDriver(), Duration.ofSeconds(timeoutInSeconds))
-                .until(ExpectedConditions.elementToBeClickable(locator));
+        timedWait("waitForElementClickable", locator, waitFor(timeoutInSeconds),
+                ExpectedConditions.elementToBeClickable(locator));
     }
 
     @Override
     public WebElement fluentWait(By locator, int timeoutInSeconds, int pollingTimeInMillis) {
-        return createFluentWait(timeoutInSeconds, pollingTimeInMillis)
-                .until(ExpectedConditions.presenceOfElementLocated(locator));
+        return timedWait("fluentWait", locator, createFluentWait(timeoutInSeconds, pollingTimeInMillis),
+                ExpectedConditions.presenceOfElementLocated(locator));
     }
 
     @Override
     public <V> V fluentWait(Function<WebDriver, V> condition, int timeoutInSeconds, int pollingTimeInMillis) {
-        return createFluentWait(timeoutInSeconds, pollingTimeInMillis)
-                .until(condition);
+        return timedWait("fluentWait", condition, createFluentWait(timeoutInSeconds, pollingTimeInMillis), condition);
+    }
+
+    protected <V> V timedWait(String operation, Object target, FluentWait<WebDriver> wait,
+                              Function<? super WebDriver, V> condition) {
+        // Whatever the wait was waiting for has changed the page
+        elementCache.markDirty();
+        return timed(operation, target, () -> wait.until(condition));
+    }
+
+    private WebDriverWait waitFor(int timeoutInSeconds) {
+        return waitsByTimeout.computeIfAbsent(timeoutInSeconds,
+                timeout -> new WebDriverWait(getDriver(), Duration.ofSeconds(timeout)));
     }
 
     private FluentWait<WebDriver> createFluentWait(int timeoutInSeconds, int pollingTimeInMillis) {
@@ -235,6 +509,7 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
     @Override
     public void switchToWindow(String windowHandle) {
         getDriver().switchTo().window(windowHandle);
+        elementCache.switchedToWindow(windowHandle);
     }
 
     @Override
@@ -242,6 +517,7 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
         for (String handle : getDriver().getWindowHandles()) {
             getDriver().switchTo().window(handle);
             if (getDriver().getTitle().contains(title)) {
+                elementCache.switchedToWindow(handle);
                 return;
             }
         }
@@ -253,6 +529,7 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
         for (String handle : getDriver().getWindowHandles()) {
             getDriver().switchTo().window(handle);
             if (getDriver().getCurrentUrl().contains(url)) {
+                elementCache.switchedToWindow(handle);
                 return;
             }
         }
@@ -264,32 +541,39 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
         String currentHandle = getDriver().getWindowHandle();
         Set<String> handles = getDriver().getWindowHandles();
         handles.remove(currentHandle);
-        getDriver().switchTo().window(handles.iterator().next());
+        String handle = handles.iterator().next();
+        getDriver().switchTo().window(handle);
+        elementCache.switchedToWindow(handle);
     }
 
     @Override
     public void closeCurrentWindowOrTab() {
         getDriver().close();
+        elementCache.clear();
     }
 
     @Override
     public void switchToParentWindow() {
         getDriver().switchTo().defaultContent();
+        elementCache.switchedToDefaultContent();
     }
 
     @Override
     public void switchToFrame(int index) {
         getDriver().switchTo().frame(index);
+        elementCache.switchedToFrame(String.valueOf(index));
     }
 
     @Override
     public void switchToFrame(String nameOrId) {
         getDriver().switchTo().frame(nameOrId);
+        elementCache.switchedToFrame(nameOrId);
     }
 
     @Override
     public void switchToDefaultContent() {
         getDriver().switchTo().defaultContent();
+        elementCache.switchedToDefaultContent();
     }
 
     @Override
@@ -305,6 +589,7 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
     @Override
     public void createNewTab() {
         getDriver().switchTo().newWindow(WindowType.TAB);
+        elementCache.switchedToWindow(getDriver().getWindowHandle());
     }
 
     @Override
@@ -312,6 +597,7 @@ public class SeleniumActions implements ElementActions, NavigationActions, Scrol
         ArrayList<String> tabs = new ArrayList<>(getDriver().getWindowHandles());
         if (index >= 0 && index < tabs.size()) {
             getDriver().switchTo().window(tabs.get(index));
+            elementCache.switchedToWindow(tabs.get(index));
         } else {
             throw new IndexOutOfBoundsException("Invalid tab index: " + index);
         }
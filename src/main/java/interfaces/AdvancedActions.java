@@ -10,4 +10,6 @@ public interface AdvancedActions {
     void doubleClick(By locator);
     void dragAndDrop(WebElement source, WebElement target);
     void dragAndDrop(By source, By target);
+    void clickAt(WebElement element, int xOffset, int yOffset);
+    void clickAt(int x, int y);
 }
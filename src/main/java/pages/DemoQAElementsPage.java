@@ -1,6 +1,7 @@
 package pages;
 
 import base.BasePage;
+import implementation.FormFill;
 import implementation.SeleniumActions;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
@@ -124,7 +125,7 @@ public class DemoQAElementsPage extends BasePage {
      */
     public WebElement getElementByLocator(By locator, int timeout) {
         actions.waitForElementVisible(locator, timeout);
-        return actions.getDriver().findElement(locator);
+        return actions.findElement(locator);
     }
 
     public void navigateToElementsPage() {
@@ -148,10 +149,11 @@ public class DemoQAElementsPage extends BasePage {
     }
 
     public void fillTextBoxForm(String fullName, String email, String currentAddress, String permanentAddress) {
-        actions.sendKeys(fullNameInput, fullName);
-        actions.sendKeys(emailInput, email);
-        actions.sendKeys(currentAddressInput, currentAddress);
-        actions.sendKeys(permanentAddressInput, permanentAddress);
+        actions.fillForm(new FormFill()
+                .field(fullNameInput, fullName)
+                .field(emailInput, email)
+                .field(currentAddressInput, currentAddress)
+                .field(permanentAddressInput, permanentAddress));
     }
 
     public void submitTextBoxForm() {
@@ -183,23 +185,19 @@ public class DemoQAElementsPage extends BasePage {
     }
 
     public void selectCheckBox(String label) {
-        WebElement checkbox = actions.getDriver().findElement(By.xpath("//span[text()='" + label + "']/ancestor::label"));
-        actions.click(checkbox);
+        actions.click(By.xpath("//span[text()='" + label + "']/ancestor::label"));
     }
 
     public boolean isCheckBoxSelected(String label) {
-        WebElement checkbox = actions.getDriver().findElement(By.xpath("//span[text()='" + label + "']/ancestor::label//input"));
-        return checkbox.isSelected();
+        return actions.isSelected(By.xpath("//span[text()='" + label + "']/ancestor::label//input"));
     }
 
     public void selectRadioButton(String label) {
-        WebElement radioButton = actions.getDriver().findElement(By.xpath("//label[text()='" + label + "']"));
-        actions.click(radioButton);
+        actions.click(By.xpath("//label[text()='" + label + "']"));
     }
 
     public boolean isRadioButtonSelected(String label) {
-        WebElement radioButton = actions.getDriver().findElement(By.xpath("//label[text()='" + label + "']/preceding-sibling::input"));
-        return radioButton.isSelected();
+        return actions.isSelected(By.xpath("//label[text()='" + label + "']/preceding-sibling::input"));
     }
 
     public String getSelectedRadioButtonText() {
@@ -208,12 +206,13 @@ public class DemoQAElementsPage extends BasePage {
 
     public void addNewRecord(String firstName, String lastName, String email, String age, String salary, String department) {
         actions.click(addNewRecordButton);
-        actions.sendKeys(By.id("firstName"), firstName);
-        actions.sendKeys(By.id("lastName"), lastName);
-        actions.sendKeys(By.id("userEmail"), email);
-        actions.sendKeys(By.id("age"), age);
-        actions.sendKeys(By.id("salary"), salary);
-        actions.sendKeys(By.id("department"), department);
+        actions.fillForm(new FormFill()
+                .field(By.id("firstName"), firstName)
+                .field(By.id("lastName"), lastName)
+                .field(By.id("userEmail"), email)
+                .field(By.id("age"), age)
+                .field(By.id("salary"), salary)
+                .field(By.id("department"), department));
         actions.click(By.id("submit"));
     }
 
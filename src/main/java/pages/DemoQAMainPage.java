@@ -1,6 +1,7 @@
 package pages;
 
 import base.BasePage;
+import implementation.ElementState;
 import implementation.SeleniumActions;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
@@ -56,17 +57,18 @@ public class DemoQAMainPage extends BasePage {
 
     public List<String> getCategoryCardTitles() {
         actions.waitForElements(ExpectedConditions.visibilityOfAllElements(categoryCards));
-        return categoryCards.stream()
-                .map(WebElement::getText)
+        return actions.readStates(categoryCards).stream()
+                .map(ElementState::text)
                 .collect(Collectors.toList());
     }
 
     public void clickCategoryCard(String cardTitle) {
         actions.waitForElements(ExpectedConditions.visibilityOfAllElements(categoryCards));
 
-        WebElement categoryCard = categoryCards.stream()
-                .filter(card -> card.getText().equals(cardTitle))
+        WebElement categoryCard = actions.readStates(categoryCards).stream()
+                .filter(card -> card.text().equals(cardTitle))
                 .findFirst()
+                .map(ElementState::element)
                 .orElseThrow(() -> new RuntimeException("Category card not found: " + cardTitle));
         actions.click(categoryCard);
     }
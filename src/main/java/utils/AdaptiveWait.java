@@ -1,39 +1,104 @@
 package utils;
 
-import base.BaseTest;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnhandledAlertException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.UnreachableBrowserException;
 import org.openqa.selenium.support.ui.ExpectedCondition;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.waitstats.WaitStatistics;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Deadline-based wait: one overall budget, polled at intervals that start short and back off with jitter.
+ * Exceptions that can never resolve by waiting (session gone, invalid selector, ...) abort immediately.
+ * <p>
+ * With {@code adaptiveWait.learnTimeouts=true}, waits that carry a key use the budget learned for that key by
+ * {@link LearnedTimeouts} instead of the global one.
+ */
 public class AdaptiveWait {
-    private static final long INITIAL_TIMEOUT = 1000; // 1 second
-    private static final long MAX_TIMEOUT = 32001; // 32 seconds
-    private static final long INCREASE_FACTOR = 2;
-    protected static final Logger LOGGER = LogManager.getLogger(BaseTest.class);
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofMillis(
+            Long.parseLong(GenericUtil.getConfig().getProperty("adaptiveWait.timeoutMillis", "30000")));
+    private static final boolean LEARN_TIMEOUTS = Boolean.parseBoolean(
+            GenericUtil.getConfig().getProperty("adaptiveWait.learnTimeouts", "false"));
+    private static final long INITIAL_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long MAX_POLL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double BACKOFF = 1.5;
+    private static final double JITTER = 0.2;
+    private static final List<Class<? extends WebDriverException>> NON_RETRYABLE = List.of(
+            NoSuchSessionException.class,
+            SessionNotCreatedException.class,
+            UnreachableBrowserException.class,
+            NoSuchWindowException.class,
+            InvalidSelectorException.class,
+            InvalidArgumentException.class,
+            UnhandledAlertException.class,
+            // A stale element stays stale; the caller has to look it up again
+            StaleElementReferenceException.class);
+    protected static final Logger LOGGER = LogManager.getLogger(AdaptiveWait.class);
 
     public static <T> T until(WebDriver driver, ExpectedCondition<T> condition) {
-        long timeout = INITIAL_TIMEOUT;
-        Exception lastException = null;
+        return until(driver, condition, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Waits for {@code condition}, using the timeout learned for {@code key} when learning is enabled.
+     */
+    public static <T> T until(WebDriver driver, String key, ExpectedCondition<T> condition) {
+        Duration timeout = LEARN_TIMEOUTS ? LearnedTimeouts.timeoutFor(key, DEFAULT_TIMEOUT) : DEFAULT_TIMEOUT;
+        long start = System.nanoTime();
+        T result = until(driver, condition, timeout);
+        LearnedTimeouts.record(key, Duration.ofNanos(System.nanoTime() - start));
+        return result;
+    }
+
+    public static <T> T until(WebDriver driver, ExpectedCondition<T> condition, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long interval = INITIAL_POLL_NANOS;
+        int attempts = 0;
+        RuntimeException lastException = null;
 
-        while (timeout <= MAX_TIMEOUT) {
+        while (true) {
+            attempts++;
             try {
-                return new WebDriverWait(driver, Duration.ofMillis(timeout)).until(condition);
-            } catch (Exception e) {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
                 lastException = e;
-                timeout *= INCREASE_FACTOR;
-                LOGGER.debug("TIME OUT INCREASED TO: " + timeout);
             }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException(String.format("Condition not met within %d ms after %d attempts: %s",
+                        timeout.toMillis(), attempts, condition), lastException);
+            }
+            long jittered = (long) (interval * (1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER)));
+            LockSupport.parkNanos(Math.min(jittered, remaining));
+            interval = Math.min((long) (interval * BACKOFF), MAX_POLL_NANOS);
         }
-        throw new RuntimeException("Condition not met within maximum timeout", lastException);
     }
 
     public static WebElement waitForElementClickable(WebDriver driver, WebElement element) {
-        return until(driver, d -> {
+        return until(driver, keyOf(element), d -> {
             if (element.isDisplayed() && element.isEnabled()) {
                 return element;
             }
@@ -41,5 +106,29 @@ public class AdaptiveWait {
         });
     }
 
+    /**
+     * Persists learned timeouts; call once at the end of the suite.
+     */
+    public static void saveLearnedTimeouts() {
+        if (LEARN_TIMEOUTS) {
+            LearnedTimeouts.save();
+        }
+    }
+
+    /**
+     * Stable key for an element across runs: the locator part of its description, without the session id.
+     */
+    static String keyOf(WebElement element) {
+        return WaitStatistics.describe(element);
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        if (!(e instanceof WebDriverException)) {
+            // Programming errors in the condition itself
+            return false;
+        }
+        return NON_RETRYABLE.stream().noneMatch(type -> type.isInstance(e));
+    }
+
     // Add more adaptive wait methods as needed
 }
@@ -10,6 +10,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -98,10 +101,10 @@ public final class GenericUtil {
 
     public static boolean getScreenshot(WebDriver driver, String screenshotName, String filepath) {
         try {
-            File source = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            File destination = new File(filepath + screenshotName + ".png");
-            FileUtils.copyFile(source, destination);
-            LOGGER.info("Screenshot captured successfully: {}", destination.getAbsolutePath());
+            byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            Path destination = Paths.get(filepath, screenshotName + ".png");
+            Files.write(destination, png);
+            LOGGER.info("Screenshot captured successfully: {}", destination.toAbsolutePath());
             return true;
         } catch (Exception e) {
             LOGGER.error("Failed to capture screenshot: ", e);
@@ -110,13 +113,7 @@ public final class GenericUtil {
     }
 
     public static String getScreenShotPath() {
-        String path = ExtentManager.getReportFilePath() + File.separator + "screenshots" + File.separator;
-        File screenshotDir = new File(path);
-        if (!screenshotDir.exists() && !screenshotDir.mkdirs()) {
-            LOGGER.error("Failed to create screenshot directory: {}", path);
-        }
-        LOGGER.info("Screenshot path: {}", path);
-        return path;
+        return ScreenshotDirectory.PATH;
     }
 
 
@@ -140,4 +137,21 @@ public final class GenericUtil {
         int max = (int) Math.pow(10, digits) - 1;
         return RANDOM.nextInt(max - min + 1) + min;
     }
+
+    /**
+     * Created once, on first use.
+     */
+    private static final class ScreenshotDirectory {
+        private static final String PATH = create();
+
+        private static String create() {
+            String path = ExtentManager.getReportFilePath() + File.separator + "screenshots" + File.separator;
+            File screenshotDir = new File(path);
+            if (!screenshotDir.exists() && !screenshotDir.mkdirs()) {
+                LOGGER.error("Failed to create screenshot directory: {}", path);
+            }
+            LOGGER.info("Screenshot path: {}", path);
+            return path;
+        }
+    }
 }
@@ -0,0 +1,126 @@
+package utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-locator wait budgets learned from how long waits actually took. The p95 of recent successful waits,
+ * multiplied by a safety factor, becomes the timeout for that locator, so a locator that normally appears in
+ * 200 ms fails after seconds rather than after the global budget. Values are persisted between runs.
+ */
+public final class LearnedTimeouts {
+    private static final Logger LOGGER = LogManager.getLogger(LearnedTimeouts.class);
+    private static final Path STORE = Paths.get(System.getProperty("user.dir"), "target", "adaptive-wait",
+            "learned-timeouts.properties");
+    private static final int SAMPLE_WINDOW = 64;
+    private static final int SAFETY_FACTOR = 3;
+    private static final Duration MIN_TIMEOUT = Duration.ofSeconds(2);
+
+    private static final Map<String, Long> PERSISTED_P95_MILLIS = load(STORE);
+    private static final Map<String, Samples> SAMPLES = new ConcurrentHashMap<>();
+
+    private LearnedTimeouts() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Returns the learned timeout for {@code key}, capped at {@code budget}, or {@code budget} when nothing has
+     * been learned yet.
+     */
+    public static Duration timeoutFor(String key, Duration budget) {
+        Samples samples = SAMPLES.get(key);
+        long p95 = samples != null ? samples.p95() : PERSISTED_P95_MILLIS.getOrDefault(key, -1L);
+        if (p95 < 0) {
+            return budget;
+        }
+        Duration learned = Duration.ofMillis(p95 * SAFETY_FACTOR);
+        if (learned.compareTo(MIN_TIMEOUT) < 0) {
+            return MIN_TIMEOUT;
+        }
+        return learned.compareTo(budget) > 0 ? budget : learned;
+    }
+
+    public static void record(String key, Duration elapsed) {
+        SAMPLES.computeIfAbsent(key, k -> new Samples()).add(elapsed.toMillis());
+    }
+
+    /**
+     * Writes the learned p95 values, keeping entries of locators not exercised in this run.
+     */
+    public static void save() {
+        try {
+            write(STORE);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to save learned timeouts to {}: {}", STORE, e.getMessage());
+        }
+    }
+
+    static void write(Path store) throws IOException {
+        Properties properties = new Properties();
+        PERSISTED_P95_MILLIS.forEach((key, value) -> properties.setProperty(key, String.valueOf(value)));
+        SAMPLES.forEach((key, samples) -> {
+            long p95 = samples.p95();
+            if (p95 >= 0) {
+                properties.setProperty(key, String.valueOf(p95));
+            }
+        });
+        Files.createDirectories(store.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(store)) {
+            properties.store(out, "p95 wait time in milliseconds per locator");
+        }
+    }
+
+    static Map<String, Long> load(Path store) {
+        Map<String, Long> values = new ConcurrentHashMap<>();
+        if (!Files.exists(store)) {
+            return values;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(store)) {
+            properties.load(in);
+            properties.forEach((key, value) -> values.put((String) key, Long.parseLong((String) value)));
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warn("Ignoring unreadable learned timeouts {}: {}", store, e.getMessage());
+        }
+        return values;
+    }
+
+    /**
+     * Ring buffer of the most recent wait times of one locator.
+     */
+    private static final class Samples {
+        private final long[] millis = new long[SAMPLE_WINDOW];
+        private int count;
+        private int next;
+
+        synchronized void add(long value) {
+            millis[next] = value;
+            next = (next + 1) % SAMPLE_WINDOW;
+            count = Math.min(count + 1, SAMPLE_WINDOW);
+        }
+
+        /**
+         * Returns -1 while no sample has been added yet, e.g. just after another thread created this buffer.
+         */
+        synchronized long p95() {
+            if (count == 0) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(millis, count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(count * 0.95) - 1];
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package utils.listeners;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+
+/**
+ * Classic single-file {@code ExecutionReport.html}. The whole model stays in memory and every flush renders the
+ * full report, which is fine for regular suites; large data-driven runs should use the streaming sink.
+ */
+final class ExtentReportSink implements ReportSink {
+    private final ExtentReports extent;
+
+    ExtentReportSink(ExtentReports extent) {
+        this.extent = extent;
+    }
+
+    @Override
+    public void start(ExtentTestHandle test) {
+        test.setSinkState(extent.createTest(test.getName()));
+    }
+
+    @Override
+    public void log(ReportEvent event) {
+        ExtentTest test = (ExtentTest) event.test().getSinkState();
+        if (event.throwable() != null) {
+            test.log(event.status(), event.throwable());
+        } else if (event.media() != null) {
+            test.log(event.status(), event.details(), event.media());
+        } else {
+            test.log(event.status(), event.details());
+        }
+    }
+
+    @Override
+    public void end(ExtentTestHandle test) {
+        // Extent keeps finished tests in its model until the next flush
+    }
+
+    @Override
+    public void flush() {
+        extent.flush();
+    }
+
+    @Override
+    public void publish() {
+        // flush() already rendered the report
+    }
+}
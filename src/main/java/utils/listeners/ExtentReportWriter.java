@@ -0,0 +1,223 @@
+package utils.listeners;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.GenericUtil;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single consumer of the report event queue. Test threads only enqueue; this thread owns the {@link ReportSink}
+ * selected by {@code report.mode} (config or system property), applies events in order and flushes it at most every
+ * {@code report.flushIntervalMillis}, plus on explicit {@link #flush()} requests.
+ * <p>
+ * The queue is lock-free: producers reserve one of {@code report.queueCapacity} slots with a CAS and append, and
+ * only wake the writer when it is parked. While the queue is full producers wait for a slot rather than dropping
+ * events, for at most {@value #BLOCK_TIMEOUT_SECONDS} seconds. Events submitted while the writer thread is not
+ * running, or that time out, are dropped with an error so a dead writer cannot hang the test threads. A shutdown
+ * hook drains whatever is still queued and flushes once more, so an aborted run still ends with a complete report.
+ */
+final class ExtentReportWriter {
+    private static final Logger LOGGER = LogManager.getLogger(ExtentReportWriter.class);
+    private static final int QUEUE_CAPACITY = Integer.parseInt(
+            GenericUtil.getConfig().getProperty("report.queueCapacity", "10000"));
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(
+            GenericUtil.getConfig().getProperty("report.flushIntervalMillis", "5000")));
+    private static final long BLOCK_TIMEOUT_SECONDS = 30;
+
+    private static final ExtentReportWriter INSTANCE = new ExtentReportWriter(
+            ReportSink.forMode(System.getProperty("report.mode",
+                    GenericUtil.getConfig().getProperty("report.mode", "extent"))));
+
+    private final ReportSink sink;
+    private final Queue<ReportEvent> queue = new ConcurrentLinkedQueue<>();
+    // Reserved slots: incremented before an event is appended, decremented once the writer has taken it
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Object spaceAvailable = new Object();
+    private final AtomicBoolean writerLostLogged = new AtomicBoolean();
+    private final Thread thread;
+    private volatile boolean writerParked;
+    private volatile boolean dirty;
+    private long nextFlush;
+
+    private ExtentReportWriter(ReportSink sink) {
+        this.sink = sink;
+        this.thread = new Thread(this::run, "extent-report-writer");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushOnShutdown, "extent-report-shutdown"));
+    }
+
+    static ExtentReportWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return whether the event was queued; {@code false} if it was dropped
+     */
+    boolean submit(ReportEvent event) {
+        if (!thread.isAlive()) {
+            if (writerLostLogged.compareAndSet(false, true)) {
+                LOGGER.error("Extent report writer is not running, report events are dropped");
+            }
+            return false;
+        }
+        if (!reserveSlot()) {
+            LOGGER.error("Extent report queue full for {} s, dropped {} event", BLOCK_TIMEOUT_SECONDS, event.type());
+            return false;
+        }
+        queue.offer(event);
+        if (writerParked) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Applies everything queued so far, renders the report and waits for it to be written.
+     */
+    void flush() {
+        ReportEvent flush = ReportEvent.flush();
+        if (submit(flush)) {
+            awaitFlush(flush);
+        }
+    }
+
+    private boolean reserveSlot() {
+        for (int reserved = queued.get(); reserved < QUEUE_CAPACITY; reserved = queued.get()) {
+            if (queued.compareAndSet(reserved, reserved + 1)) {
+                return true;
+            }
+        }
+        return awaitSlot();
+    }
+
+    /**
+     * Slow path while the queue is full: waits for the writer to free a slot, for the writer to die or for the
+     * timeout. The event is kept on interrupt; the interrupt is restored afterwards.
+     */
+    private boolean awaitSlot() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(BLOCK_TIMEOUT_SECONDS);
+        boolean interrupted = false;
+        try {
+            synchronized (spaceAvailable) {
+                while (true) {
+                    int reserved = queued.get();
+                    if (reserved < QUEUE_CAPACITY) {
+                        if (queued.compareAndSet(reserved, reserved + 1)) {
+                            return true;
+                        }
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !thread.isAlive()) {
+                        return false;
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(spaceAvailable, remaining);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void awaitFlush(ReportEvent flush) {
+        try {
+            flush.done().get(BLOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.error("Error flushing Extent report: ", e.getCause());
+        } catch (TimeoutException e) {
+            LOGGER.error("Extent report may be incomplete, flush not done after {} s", BLOCK_TIMEOUT_SECONDS);
+        }
+    }
+
+    private void run() {
+        nextFlush = System.nanoTime() + FLUSH_INTERVAL_NANOS;
+        while (!Thread.currentThread().isInterrupted()) {
+            ReportEvent event = queue.poll();
+            if (event != null) {
+                if (queued.getAndDecrement() == QUEUE_CAPACITY) {
+                    synchronized (spaceAvailable) {
+                        spaceAvailable.notifyAll();
+                    }
+                }
+                apply(event);
+            } else {
+                awaitEvent();
+            }
+            if (dirty && System.nanoTime() - nextFlush >= 0) {
+                render();
+            }
+        }
+        LOGGER.warn("Extent report writer interrupted, events after this point are not written");
+    }
+
+    /**
+     * Parks until a producer appends an event; with nothing to render indefinitely, otherwise at most until the
+     * flush is due. The queue is re-checked after announcing the park, so an event appended concurrently either
+     * is seen here or unparks the writer.
+     */
+    private void awaitEvent() {
+        writerParked = true;
+        if (queue.isEmpty()) {
+            if (dirty) {
+                LockSupport.parkNanos(this, nextFlush - System.nanoTime());
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        writerParked = false;
+    }
+
+    private void apply(ReportEvent event) {
+        try {
+            switch (event.type()) {
+                case START -> sink.start(event.test());
+                case LOG -> sink.log(event);
+                case END -> sink.end(event.test());
+                case FLUSH -> {
+                    render();
+                    sink.publish();
+                    event.done().complete(null);
+                }
+            }
+            dirty |= event.type() != ReportEvent.Type.FLUSH;
+        } catch (RuntimeException e) {
+            if (event.done() != null) {
+                event.done().completeExceptionally(e);
+            }
+            LOGGER.error("Failed to apply report event {}: {}", event.type(), e.getMessage());
+        }
+    }
+
+    private void render() {
+        sink.flush();
+        dirty = false;
+        nextFlush = System.nanoTime() + FLUSH_INTERVAL_NANOS;
+    }
+
+    private void flushOnShutdown() {
+        if (queue.isEmpty() && !dirty) {
+            return;
+        }
+        ReportEvent flush = ReportEvent.flush();
+        if (submit(flush)) {
+            awaitFlush(flush);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package utils.listeners;
+
+import com.aventstack.extentreports.MediaEntityModelProvider;
+import com.aventstack.extentreports.Status;
+
+/**
+ * Test-thread view of a report entry. Every call only enqueues an event for the report writer thread, so
+ * logging never waits on {@code ExtentReports} or on other tests.
+ */
+public final class ExtentTestHandle {
+    private final String name;
+    private final ExtentReportWriter writer;
+    // Owned by the report sink, only touched by the writer thread
+    private Object sinkState;
+
+    ExtentTestHandle(String name, ExtentReportWriter writer) {
+        this.name = name;
+        this.writer = writer;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ExtentTestHandle log(Status status, String details) {
+        writer.submit(ReportEvent.log(this, status, details));
+        return this;
+    }
+
+    public ExtentTestHandle log(Status status, Throwable throwable) {
+        writer.submit(ReportEvent.log(this, status, throwable));
+        return this;
+    }
+
+    public ExtentTestHandle pass(String details) {
+        return log(Status.PASS, details);
+    }
+
+    public ExtentTestHandle info(String details) {
+        return log(Status.INFO, details);
+    }
+
+    public ExtentTestHandle fail(String details) {
+        return log(Status.FAIL, details);
+    }
+
+    public ExtentTestHandle fail(String details, MediaEntityModelProvider provider) {
+        writer.submit(ReportEvent.log(this, Status.FAIL, details, provider));
+        return this;
+    }
+
+    Object getSinkState() {
+        return sinkState;
+    }
+
+    void setSinkState(Object sinkState) {
+        this.sinkState = sinkState;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,42 +1,131 @@
 package utils.listeners;
 
-import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.testng.ITestResult;
+import org.testng.Reporter;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Keeps the {@link ExtentTestHandle} of each running test on its {@link ITestResult}, so reporting follows the
+ * test rather than the thread. This holds for platform and virtual test threads alike. Callers outside a TestNG
+ * test, where no result is bound, share one "Unnamed Test" per thread, ended on {@link #endTest()} or the next
+ * {@link #flush()}.
+ * <p>
+ * Handles only enqueue events; {@link ExtentReportWriter} applies them and renders the report in the background.
+ */
 public final class ExtentTestManager {
     private static final Logger LOGGER = LogManager.getLogger(ExtentTestManager.class);
-    private static final ConcurrentHashMap<Long, ExtentTest> extentTestMap = new ConcurrentHashMap<>();
-    private static final ExtentReports extent = ExtentManager.getInstance();
+    private static final String RESULT_ATTRIBUTE = ExtentTestHandle.class.getName();
+    private static final Duration DEFERRED_END_TIMEOUT = Duration.ofSeconds(30);
+    private static final ExtentReportWriter writer = ExtentReportWriter.getInstance();
+    private static final Set<CompletableFuture<?>> deferredEnds = ConcurrentHashMap.newKeySet();
+    private static final Map<Thread, ExtentTestHandle> fallbackTests = new ConcurrentHashMap<>();
 
     private ExtentTestManager() {
         // Private constructor to prevent instantiation
     }
 
-    public static synchronized ExtentTest getTest() {
-        return Optional.ofNullable(extentTestMap.get(Thread.currentThread().getId()))
+    public static ExtentTestHandle getTest() {
+        return getTest(Reporter.getCurrentTestResult());
+    }
+
+    public static ExtentTestHandle getTest(ITestResult result) {
+        if (result == null) {
+            return fallbackTests.computeIfAbsent(Thread.currentThread(), thread -> {
+                LOGGER.warn("No test result bound to thread {}. Creating an ExtentTest for it.", thread.getName());
+                return startTest(null, "Unnamed Test");
+            });
+        }
+        return Optional.ofNullable((ExtentTestHandle) result.getAttribute(RESULT_ATTRIBUTE))
                 .orElseGet(() -> {
-                    LOGGER.warn("No ExtentTest instance found for the current thread. Creating a new one.");
-                    return startTest("Unnamed Test");
+                    LOGGER.warn("No ExtentTest instance found for the current test. Creating a new one.");
+                    return startTest(result, "Unnamed Test");
                 });
     }
 
-    public static synchronized void endTest() {
-        Optional.ofNullable(extentTestMap.remove(Thread.currentThread().getId()))
+    public static void endTest() {
+        endTest(Reporter.getCurrentTestResult());
+    }
+
+    public static void endTest(ITestResult result) {
+        if (result == null) {
+            Optional.ofNullable(fallbackTests.remove(Thread.currentThread())).ifPresent(ExtentTestManager::endTest);
+            return;
+        }
+        Optional.ofNullable((ExtentTestHandle) result.getAttribute(RESULT_ATTRIBUTE))
                 .ifPresent(test -> {
-                    extent.flush();
-                    LOGGER.info("Ended test: {}", test.getModel().getName());
+                    result.removeAttribute(RESULT_ATTRIBUTE);
+                    endTest(test);
                 });
     }
 
-    public static synchronized ExtentTest startTest(String testName) {
-        ExtentTest test = extent.createTest(testName);
-        extentTestMap.put(Thread.currentThread().getId(), test);
+    /**
+     * Detaches the test from {@code result} now and ends it once {@code pending} completes, for reporting that
+     * finishes after the test thread has moved on, such as screenshots written in the background.
+     */
+    public static void endTestWhenDone(ITestResult result, CompletionStage<?> pending) {
+        ExtentTestHandle test = (ExtentTestHandle) result.getAttribute(RESULT_ATTRIBUTE);
+        if (test == null) {
+            return;
+        }
+        result.removeAttribute(RESULT_ATTRIBUTE);
+        CompletableFuture<?> end = pending.toCompletableFuture().whenComplete((value, error) -> endTest(test));
+        deferredEnds.add(end);
+        end.whenComplete((value, error) -> deferredEnds.remove(end));
+    }
+
+    public static void endTest(ExtentTestHandle test) {
+        writer.submit(ReportEvent.end(test));
+        LOGGER.info("Ended test: {}", test.getName());
+    }
+
+    public static ExtentTestHandle startTest(String testName) {
+        return startTest(Reporter.getCurrentTestResult(), testName);
+    }
+
+    public static ExtentTestHandle startTest(ITestResult result, String testName) {
+        ExtentTestHandle test = new ExtentTestHandle(testName, writer);
+        writer.submit(ReportEvent.start(test));
+        if (result != null) {
+            result.setAttribute(RESULT_ATTRIBUTE, test);
+        }
         LOGGER.info("Started test: {}", testName);
         return test;
     }
-}
\ No newline at end of file
+
+    /**
+     * Ends the per-thread fallback tests, then writes everything logged so far, including deferred test ends, to
+     * the report and waits until the file is rendered.
+     */
+    public static void flush() {
+        fallbackTests.keySet().forEach(thread ->
+                Optional.ofNullable(fallbackTests.remove(thread)).ifPresent(ExtentTestManager::endTest));
+        awaitDeferredEnds();
+        writer.flush();
+    }
+
+    private static void awaitDeferredEnds() {
+        try {
+            CompletableFuture.allOf(deferredEnds.toArray(new CompletableFuture<?>[0]))
+                    .get(DEFERRED_END_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Whoever deferred the end reports its own failure
+        } catch (TimeoutException e) {
+            LOGGER.warn("{} test(s) still finishing their reporting after {} s", deferredEnds.size(),
+                    DEFERRED_END_TIMEOUT.toSeconds());
+        }
+    }
+}
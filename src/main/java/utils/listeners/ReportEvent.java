@@ -0,0 +1,41 @@
+package utils.listeners;
+
+import com.aventstack.extentreports.MediaEntityModelProvider;
+import com.aventstack.extentreports.Status;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One queued report operation. Events of a test are applied in submission order by the writer thread.
+ */
+record ReportEvent(Type type, ExtentTestHandle test, Status status, String details, Throwable throwable,
+                   MediaEntityModelProvider media, CompletableFuture<Void> done) {
+
+    enum Type {
+        START, LOG, END, FLUSH
+    }
+
+    static ReportEvent start(ExtentTestHandle test) {
+        return new ReportEvent(Type.START, test, null, null, null, null, null);
+    }
+
+    static ReportEvent log(ExtentTestHandle test, Status status, String details) {
+        return new ReportEvent(Type.LOG, test, status, details, null, null, null);
+    }
+
+    static ReportEvent log(ExtentTestHandle test, Status status, Throwable throwable) {
+        return new ReportEvent(Type.LOG, test, status, null, throwable, null, null);
+    }
+
+    static ReportEvent log(ExtentTestHandle test, Status status, String details, MediaEntityModelProvider media) {
+        return new ReportEvent(Type.LOG, test, status, details, null, media, null);
+    }
+
+    static ReportEvent end(ExtentTestHandle test) {
+        return new ReportEvent(Type.END, test, null, null, null, null, null);
+    }
+
+    static ReportEvent flush() {
+        return new ReportEvent(Type.FLUSH, null, null, null, null, null, new CompletableFuture<>());
+    }
+}
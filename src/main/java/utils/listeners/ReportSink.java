@@ -0,0 +1,31 @@
+package utils.listeners;
+
+/**
+ * Destination of report events. Implementations are only ever called from the report writer thread.
+ */
+interface ReportSink {
+
+    void start(ExtentTestHandle test);
+
+    void log(ReportEvent event);
+
+    void end(ExtentTestHandle test);
+
+    /**
+     * Periodic persistence of what has been applied so far.
+     */
+    void flush();
+
+    /**
+     * Brings the human-readable report up to date; called on explicit flush requests such as suite end.
+     */
+    void publish();
+
+    static ReportSink forMode(String mode) {
+        return switch (mode) {
+            case "extent" -> new ExtentReportSink(ExtentManager.getInstance());
+            case "streaming" -> new StreamingReportSink(ExtentManager.getReportFilePath());
+            default -> throw new IllegalArgumentException("Unknown report.mode: " + mode);
+        };
+    }
+}
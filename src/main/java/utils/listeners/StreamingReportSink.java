@@ -0,0 +1,161 @@
+package utils.listeners;
+
+import com.aventstack.extentreports.Status;
+import com.google.gson.Gson;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.GenericUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only result store for very large runs. Each finished test becomes one NDJSON line in
+ * {@code target/extent-reports/stream/segment-NNNNN.ndjson}; a segment holds {@code report.streaming.pageSize}
+ * tests and maps to one page of the static viewer. Only tests still running are kept in memory, so heap use does
+ * not grow with the number of results.
+ * <p>
+ * Pages of full segments are rendered once when the segment is closed; publishing re-renders only the open
+ * segment's page and {@code StreamingReport.html}, the summary and page index.
+ */
+final class StreamingReportSink implements ReportSink {
+    private static final Logger LOGGER = LogManager.getLogger(StreamingReportSink.class);
+    private static final int PAGE_SIZE = Integer.parseInt(
+            GenericUtil.getConfig().getProperty("report.streaming.pageSize", "500"));
+    private static final Gson GSON = new Gson();
+    private static final List<Status> STATUS_HIERARCHY = Status.getStatusHierarchy();
+
+    private final Path streamDir;
+    private final StreamingReportViewer viewer;
+    private final Map<Status, Long> totals = new EnumMap<>(Status.class);
+    private final List<StreamingReportViewer.PageSummary> pages = new ArrayList<>();
+    private BufferedWriter segment;
+    private StreamingReportViewer.PageSummary currentPage;
+
+    StreamingReportSink(String reportDir) {
+        this.streamDir = Paths.get(reportDir, "stream");
+        this.viewer = new StreamingReportViewer(Paths.get(reportDir, "StreamingReport.html"), streamDir);
+        try {
+            Files.createDirectories(streamDir);
+            deletePreviousRun();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare " + streamDir, e);
+        }
+        LOGGER.info("Streaming report: {}", viewer.getIndexFile());
+    }
+
+    @Override
+    public void start(ExtentTestHandle test) {
+        test.setSinkState(new TestRecord(System.currentTimeMillis()));
+    }
+
+    @Override
+    public void log(ReportEvent event) {
+        TestRecord record = (TestRecord) event.test().getSinkState();
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("time", System.currentTimeMillis());
+        entry.put("status", event.status().name());
+        entry.put("details", event.throwable() != null ? stackTrace(event.throwable()) : event.details());
+        if (event.media() != null) {
+            entry.put("media", event.media().getMedia().getPath());
+        }
+        record.logs.add(entry);
+        if (STATUS_HIERARCHY.indexOf(event.status()) < STATUS_HIERARCHY.indexOf(record.status)) {
+            record.status = event.status();
+        }
+    }
+
+    @Override
+    public void end(ExtentTestHandle test) {
+        TestRecord record = (TestRecord) test.getSinkState();
+        test.setSinkState(null);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", test.getName());
+        result.put("status", record.status.name());
+        result.put("start", record.start);
+        result.put("end", System.currentTimeMillis());
+        result.put("logs", record.logs);
+        try {
+            if (currentPage == null || currentPage.getTests() >= PAGE_SIZE) {
+                rollSegment();
+            }
+            GSON.toJson(result, segment);
+            segment.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        currentPage.add(record.status);
+        totals.merge(record.status, 1L, Long::sum);
+    }
+
+    @Override
+    public void flush() {
+        if (segment != null) {
+            try {
+                segment.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void publish() {
+        try {
+            if (currentPage != null) {
+                viewer.renderPage(currentPage, false);
+            }
+            viewer.renderIndex(pages, totals);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        if (segment != null) {
+            segment.close();
+            // A full segment never changes again, render its page once; the next page is about to exist
+            viewer.renderPage(currentPage, true);
+        }
+        currentPage = new StreamingReportViewer.PageSummary(pages.size() + 1);
+        pages.add(currentPage);
+        segment = Files.newBufferedWriter(viewer.segmentFile(currentPage.getNumber()), StandardCharsets.UTF_8);
+    }
+
+    private void deletePreviousRun() throws IOException {
+        try (DirectoryStream<Path> previous = Files.newDirectoryStream(streamDir, "*.{ndjson,html}")) {
+            for (Path file : previous) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static String stackTrace(Throwable throwable) {
+        StringWriter trace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(trace));
+        return trace.toString();
+    }
+
+    private static final class TestRecord {
+        private final long start;
+        private final List<Map<String, Object>> logs = new ArrayList<>();
+        private Status status = Status.PASS;
+
+        TestRecord(long start) {
+            this.start = start;
+        }
+    }
+}
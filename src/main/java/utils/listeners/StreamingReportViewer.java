@@ -0,0 +1,168 @@
+package utils.listeners;
+
+import com.aventstack.extentreports.Status;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static HTML viewer over the NDJSON segments of {@link StreamingReportSink}: one page per segment, read line by
+ * line so rendering needs no more memory than a single test, plus an index with totals and page links.
+ */
+final class StreamingReportViewer {
+    private static final Gson GSON = new Gson();
+    private static final Type TEST_TYPE = new TypeToken<Map<String, Object>>() { }.getType();
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final String STYLE = "<style>body{font-family:sans-serif;margin:2em}"
+            + "table{border-collapse:collapse;width:100%}td,th{border:1px solid #ccc;padding:4px 8px;vertical-align:top}"
+            + ".PASS{color:#2e7d32}.FAIL,.FATAL,.ERROR{color:#c62828}.WARNING{color:#ef6c00}.SKIP{color:#757575}"
+            + "pre{white-space:pre-wrap;margin:0}img{max-width:480px}</style>";
+
+    private final Path indexFile;
+    private final Path streamDir;
+
+    StreamingReportViewer(Path indexFile, Path streamDir) {
+        this.indexFile = indexFile;
+        this.streamDir = streamDir;
+    }
+
+    Path getIndexFile() {
+        return indexFile;
+    }
+
+    Path segmentFile(int page) {
+        return streamDir.resolve(String.format("segment-%05d.ndjson", page));
+    }
+
+    void renderPage(PageSummary page, boolean hasNext) throws IOException {
+        int number = page.getNumber();
+        try (BufferedReader segment = Files.newBufferedReader(segmentFile(number), StandardCharsets.UTF_8);
+             BufferedWriter html = Files.newBufferedWriter(pageFile(number), StandardCharsets.UTF_8)) {
+            html.write("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Page " + number + "</title>"
+                    + STYLE + "</head><body>");
+            writeNavigation(html, number, hasNext);
+            html.write("<table><tr><th>Status</th><th>Test</th><th>Started</th><th>Duration</th></tr>");
+            String line;
+            while ((line = segment.readLine()) != null) {
+                if (!line.isBlank()) {
+                    writeTest(html, GSON.fromJson(line, TEST_TYPE));
+                }
+            }
+            html.write("</table>");
+            writeNavigation(html, number, hasNext);
+            html.write("</body></html>");
+        }
+    }
+
+    void renderIndex(List<PageSummary> pages, Map<Status, Long> totals) throws IOException {
+        try (BufferedWriter html = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+            html.write("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Execution report</title>"
+                    + STYLE + "</head><body><h1>Execution report</h1><p>");
+            long total = totals.values().stream().mapToLong(Long::longValue).sum();
+            html.write(total + " tests");
+            for (Map.Entry<Status, Long> entry : totals.entrySet()) {
+                html.write(" &middot; <span class=\"" + entry.getKey().name() + "\">" + entry.getValue() + " "
+                        + entry.getKey() + "</span>");
+            }
+            html.write("</p><table><tr><th>Page</th><th>Tests</th><th>Failed</th></tr>");
+            for (PageSummary page : pages) {
+                html.write("<tr><td><a href=\"" + relativePageLink(page.getNumber()) + "\">Page " + page.getNumber()
+                        + "</a></td><td>" + page.getTests() + "</td><td class=\"FAIL\">" + page.getFailed()
+                        + "</td></tr>");
+            }
+            html.write("</table></body></html>");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeTest(BufferedWriter html, Map<String, Object> test) throws IOException {
+        String status = String.valueOf(test.get("status"));
+        long start = ((Number) test.get("start")).longValue();
+        long end = ((Number) test.get("end")).longValue();
+        html.write("<tr><td class=\"" + status + "\">" + status + "</td><td><details><summary>"
+                + escape(String.valueOf(test.get("name"))) + "</summary><table>");
+        for (Map<String, Object> log : (List<Map<String, Object>>) test.get("logs")) {
+            String logStatus = String.valueOf(log.get("status"));
+            html.write("<tr><td class=\"" + logStatus + "\">" + logStatus + "</td><td><pre>"
+                    + escape(String.valueOf(log.get("details"))) + "</pre>");
+            Object media = log.get("media");
+            if (media != null) {
+                // Media paths are relative to the report directory, pages live one level below it
+                html.write("<a href=\"../" + escape(media.toString()) + "\"><img src=\"../"
+                        + escape(media.toString()) + "\"></a>");
+            }
+            html.write("</td></tr>");
+        }
+        html.write("</table></details></td><td>" + TIME_FORMAT.format(Instant.ofEpochMilli(start)) + "</td><td>"
+                + (end - start) + " ms</td></tr>");
+    }
+
+    private void writeNavigation(BufferedWriter html, int number, boolean hasNext) throws IOException {
+        html.write("<p><a href=\"../" + indexFile.getFileName() + "\">Summary</a>");
+        if (number > 1) {
+            html.write(" &middot; <a href=\"" + pageFile(number - 1).getFileName() + "\">&laquo; Previous</a>");
+        }
+        html.write(" &middot; Page " + number);
+        if (hasNext) {
+            html.write(" &middot; <a href=\"" + pageFile(number + 1).getFileName() + "\">Next &raquo;</a>");
+        }
+        html.write("</p>");
+    }
+
+    private Path pageFile(int page) {
+        return streamDir.resolve(String.format("page-%05d.html", page));
+    }
+
+    private String relativePageLink(int page) {
+        return indexFile.getParent().relativize(pageFile(page)).toString().replace('\\', '/');
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * Running counts of one page, the only per-page state kept in memory.
+     */
+    static final class PageSummary {
+        private final int number;
+        private final Map<Status, Long> counts = new EnumMap<>(Status.class);
+        private int tests;
+
+        PageSummary(int number) {
+            this.number = number;
+        }
+
+        int getNumber() {
+            return number;
+        }
+
+        int getTests() {
+            return tests;
+        }
+
+        long getFailed() {
+            return counts.getOrDefault(Status.FAIL, 0L) + counts.getOrDefault(Status.FATAL, 0L)
+                    + counts.getOrDefault(Status.ERROR, 0L);
+        }
+
+        void add(Status status) {
+            tests++;
+            counts.merge(status, 1L, Long::sum);
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package utils.listeners;
 
-import base.BaseTest;
+import base.DriverLease;
 import com.aventstack.extentreports.MediaEntityBuilder;
 import com.aventstack.extentreports.Status;
+import implementation.ElementCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 import utils.GenericUtil;
-import base.CustomThreadSafeDriver;
+import utils.screenshots.ScreenshotWriter;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 public class TestListener implements ITestListener {
     private static final Logger LOGGER = LogManager.getLogger(TestListener.class);
@@ -27,90 +31,94 @@ public class TestListener implements ITestListener {
     public void onFinish(ITestContext context) {
         LOGGER.info("*** Test Suite {} ending ***", context.getName());
         flushExtentReports();
+        ScreenshotWriter.Stats screenshots = ScreenshotWriter.getStats();
+        if (screenshots.requests() > 0) {
+            // Process-wide counters, accumulated over every <test> finished so far
+            LOGGER.info("Screenshots, run total: {} captured, {} stored ({} KB), {} deduplicated ({}%, {} KB saved)",
+                    screenshots.requests(), screenshots.stored(), screenshots.storedBytes() / 1024,
+                    screenshots.hits(), Math.round(screenshots.hitRate() * 100), screenshots.savedBytes() / 1024);
+        }
+        ElementCache.Stats elements = ElementCache.getStats();
+        if (elements.lookups() > 0) {
+            LOGGER.info("Element cache, run total: {} lookups, {} hits ({}%), {} generation checks, {} invalidated",
+                    elements.lookups(), elements.hits(), Math.round(elements.hitRate() * 100), elements.checks(),
+                    elements.invalidations());
+        }
     }
 
     @Override
     public void onTestStart(ITestResult result) {
         LOGGER.info("*** Running test method {} ***", result.getMethod().getMethodName());
         String testName = getTestName(result);
-        ExtentTestManager.startTest(testName);
+        ExtentTestManager.startTest(result, testName);
     }
 
     @Override
     public void onTestSuccess(ITestResult result) {
         LOGGER.info("*** Executed {} test successfully ***", result.getMethod().getMethodName());
-        ExtentTestManager.getTest().log(Status.PASS, "Test Passed");
+        ExtentTestManager.getTest(result).log(Status.PASS, "Test Passed");
+        ExtentTestManager.endTest(result);
     }
 
     @Override
     public void onTestFailure(ITestResult result) {
         LOGGER.info("*** Test execution {} failed ***", result.getMethod().getMethodName());
-        WebDriver driver = CustomThreadSafeDriver.getCurrentDriver();
+        ExtentTestHandle test = ExtentTestManager.getTest(result);
+        WebDriver driver = DriverLease.of(result).map(DriverLease::getDriver).orElse(null);
+        CompletableFuture<Void> reported;
         if (driver != null) {
-            String screenshotPath = captureScreenshot(driver, result.getMethod().getMethodName());
-            if (screenshotPath != null) {
-                attachScreenshotToReport(screenshotPath);
-            } else {
-                logScreenshotError();
-            }
+            // Only the capture needs the browser; encoding, writing and attaching run after the session is released
+            reported = captureScreenshot(driver, result.getMethod().getMethodName())
+                    .handle((screenshotPath, error) -> {
+                        if (error == null) {
+                            attachScreenshotToReport(test, screenshotPath);
+                        } else {
+                            logScreenshotError(test, error);
+                        }
+                        logTestFailure(test, result);
+                        return null;
+                    });
         } else {
-            logWebDriverError();
+            logWebDriverError(test);
+            logTestFailure(test, result);
+            reported = CompletableFuture.completedFuture(null);
         }
-        logTestFailure(result);
+        ExtentTestManager.endTestWhenDone(result, reported);
     }
 
     @Override
     public void onTestSkipped(ITestResult result) {
         LOGGER.info("*** Test {} skipped ***", result.getMethod().getMethodName());
-        ExtentTestManager.getTest().log(Status.SKIP, "Test Skipped");
+        ExtentTestManager.getTest(result).log(Status.SKIP, "Test Skipped");
+        ExtentTestManager.endTest(result);
     }
 
     private String getTestName(ITestResult result) {
-        String driverName = "Unknown";
-        if (result.getInstance() instanceof BaseTest) {
-            BaseTest baseTest = (BaseTest) result.getInstance();
-            driverName = baseTest.getDriverName();
-        }
+        String driverName = DriverLease.of(result)
+                .map(lease -> lease.getSession().toString())
+                .orElse("Unknown");
         return result.getTestClass().getName() + " :: " + result.getMethod().getMethodName() + " [" + driverName + "]";
     }
 
-    private String captureScreenshot(WebDriver driver, String methodName) {
+    private CompletableFuture<Path> captureScreenshot(WebDriver driver, String methodName) {
         String screenshotName = methodName + "_" + GenericUtil.currentDate("yyyyMMddHHmmss");
-        String screenshotPath = GenericUtil.getScreenShotPath() + screenshotName + ".png";
-        LOGGER.info("Attempting to capture screenshot: {}", screenshotPath);
-
-        boolean screenshotCaptured = GenericUtil.getScreenshot(driver, screenshotName, GenericUtil.getScreenShotPath());
-        LOGGER.info("Screenshot capture result: {}", screenshotCaptured);
-
-        if (screenshotCaptured) {
-            File screenshotFile = new File(screenshotPath);
-            if (screenshotFile.exists()) {
-                LOGGER.info("Screenshot found: {}", screenshotPath);
-                return screenshotPath;
-            } else {
-                LOGGER.error("Screenshot file not found: {}", screenshotPath);
-            }
+        try {
+            byte[] png = ScreenshotWriter.capture(driver);
+            return ScreenshotWriter.write(png, screenshotName);
+        } catch (WebDriverException e) {
+            return CompletableFuture.failedFuture(e);
         }
-
-        LOGGER.error("Failed to capture screenshot");
-        return null;
     }
 
-    private void attachScreenshotToReport(String screenshotPath) {
+    private void attachScreenshotToReport(ExtentTestHandle test, Path screenshotPath) {
         try {
-            File screenshotFile = new File(screenshotPath);
-            if (screenshotFile.exists()) {
-                String relativeScreenshotPath = getRelativeScreenshotPath(screenshotPath);
-                ExtentTestManager.getTest().fail("Test failed. Screenshot attached:",
-                        MediaEntityBuilder.createScreenCaptureFromPath(relativeScreenshotPath).build());
-                LOGGER.info("Screenshot attached to report: {}", relativeScreenshotPath);
-            } else {
-                LOGGER.error("Screenshot file not found: {}", screenshotPath);
-                ExtentTestManager.getTest().log(Status.WARNING, "Screenshot file not found: " + screenshotPath);
-            }
+            String relativeScreenshotPath = getRelativeScreenshotPath(screenshotPath.toString());
+            test.fail("Test failed. Screenshot attached:",
+                    MediaEntityBuilder.createScreenCaptureFromPath(relativeScreenshotPath).build());
+            LOGGER.info("Screenshot attached to report: {}", relativeScreenshotPath);
         } catch (IOException e) {
             LOGGER.error("Failed to attach screenshot to report: ", e);
-            ExtentTestManager.getTest().log(Status.WARNING, "Failed to attach screenshot to report: " + e.getMessage());
+            test.log(Status.WARNING, "Failed to attach screenshot to report: " + e.getMessage());
         }
     }
 
@@ -121,25 +129,25 @@ public class TestListener implements ITestListener {
 
     private void flushExtentReports() {
         try {
-            ExtentManager.getInstance().flush();
+            ExtentTestManager.flush();
             LOGGER.info("Extent report flushed successfully");
         } catch (Exception e) {
             LOGGER.error("Error flushing Extent report: ", e);
         }
     }
 
-    private void logScreenshotError() {
-        LOGGER.error("Failed to capture screenshot");
-        ExtentTestManager.getTest().log(Status.WARNING, "Failed to capture screenshot");
+    private void logScreenshotError(ExtentTestHandle test, Throwable error) {
+        LOGGER.error("Failed to capture screenshot: ", error);
+        test.log(Status.WARNING, "Failed to capture screenshot");
     }
 
-    private void logWebDriverError() {
+    private void logWebDriverError(ExtentTestHandle test) {
         LOGGER.error("WebDriver is null. Unable to capture screenshot.");
-        ExtentTestManager.getTest().log(Status.WARNING, "WebDriver is null. Unable to capture screenshot.");
+        test.log(Status.WARNING, "WebDriver is null. Unable to capture screenshot.");
     }
 
-    private void logTestFailure(ITestResult result) {
-        ExtentTestManager.getTest().log(Status.FAIL, "Test Failed");
-        ExtentTestManager.getTest().log(Status.FAIL, result.getThrowable());
+    private void logTestFailure(ExtentTestHandle test, ITestResult result) {
+        test.log(Status.FAIL, "Test Failed");
+        test.log(Status.FAIL, result.getThrowable());
     }
 }
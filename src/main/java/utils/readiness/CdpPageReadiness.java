@@ -0,0 +1,198 @@
+package utils.readiness;
+
+import base.HealeniumWebDriverFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Event-driven readiness over the Chrome DevTools Protocol. Frame loading and in-flight requests are tracked
+ * from {@code Page.*} and {@code Network.*} events, so waiting costs no WebDriver round trips and returns as
+ * soon as the page goes quiet.
+ * <p>
+ * Raw protocol method names are used instead of the versioned {@code devtools.vNNN} bindings so the tracker
+ * keeps working when Chrome moves ahead of the Selenium release.
+ */
+class CdpPageReadiness implements PageReadiness, AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger(CdpPageReadiness.class);
+    private static final Duration QUIET_PERIOD = Duration.ofMillis(50);
+    // Long-polling and streaming requests never finish, and a frame removed while loading may never report that
+    // it stopped; stop waiting on either after this long
+    private static final long LONG_REQUEST_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final Set<String> STREAMING_TYPES = Set.of("EventSource", "WebSocket", "Ping");
+
+    private final WebDriver driver;
+    private final DevTools devTools;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<String, Long> loadingFrames = new HashMap<>();
+    private final Map<String, Long> inflightRequests = new HashMap<>();
+    private boolean initialLoadPending;
+    private long lastActivityNanos = System.nanoTime();
+
+    private CdpPageReadiness(WebDriver driver, DevTools devTools) {
+        this.driver = driver;
+        this.devTools = devTools;
+    }
+
+    static Optional<CdpPageReadiness> attach(WebDriver driver) {
+        WebDriver delegate = HealeniumWebDriverFactory.unwrap(driver);
+        if (!(delegate instanceof HasDevTools)) {
+            return Optional.empty();
+        }
+        try {
+            Optional<DevTools> devTools = ((HasDevTools) delegate).maybeGetDevTools();
+            if (devTools.isEmpty()) {
+                return Optional.empty();
+            }
+            CdpPageReadiness readiness = new CdpPageReadiness(driver, devTools.get());
+            readiness.start();
+            return Optional.of(readiness);
+        } catch (Exception e) {
+            LOGGER.warn("DevTools unavailable, falling back to script readiness: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void start() {
+        devTools.createSessionIfThereIsNotOne();
+        devTools.addListener(event("Page.frameStartedLoading"),
+                params -> update(() -> loadingFrames.put((String) params.get("frameId"), System.nanoTime())));
+        devTools.addListener(event("Page.frameStoppedLoading"), params -> update(() -> {
+            loadingFrames.remove((String) params.get("frameId"));
+            initialLoadPending = false;
+        }));
+        devTools.addListener(event("Page.frameDetached"),
+                params -> update(() -> loadingFrames.remove((String) params.get("frameId"))));
+        devTools.addListener(event("Page.frameNavigated"), params -> update(() -> {
+            Map<?, ?> frame = (Map<?, ?>) params.get("frame");
+            if (frame != null && frame.get("parentId") == null) {
+                // The main frame's new document replaces all child frames of the previous one
+                loadingFrames.keySet().retainAll(Set.of(frame.get("id")));
+            }
+        }));
+        devTools.addListener(event("Page.loadEventFired"), params -> update(() -> initialLoadPending = false));
+        devTools.addListener(event("Network.requestWillBeSent"), params -> update(() -> {
+            if (!STREAMING_TYPES.contains(params.get("type"))) {
+                inflightRequests.put((String) params.get("requestId"), System.nanoTime());
+            }
+        }));
+        devTools.addListener(event("Network.loadingFinished"),
+                params -> update(() -> inflightRequests.remove((String) params.get("requestId"))));
+        devTools.addListener(event("Network.loadingFailed"),
+                params -> update(() -> inflightRequests.remove((String) params.get("requestId"))));
+        devTools.send(new Command<>("Page.enable", Map.of()));
+        devTools.send(new Command<>("Network.enable", Map.of()));
+
+        // A load that started before the listeners were attached produces no frameStartedLoading event
+        Object readyState = ((JavascriptExecutor) driver).executeScript("return document.readyState");
+        update(() -> initialLoadPending = !"complete".equals(readyState));
+    }
+
+    @Override
+    public Result awaitReady(Duration loadTimeout, Duration idleTimeout) {
+        long idleDeadline = System.nanoTime() + loadTimeout.toNanos() + idleTimeout.toNanos();
+        if (!awaitNetworkIdle(loadTimeout, idleTimeout)) {
+            return new Result(false, "network", 0);
+        }
+        if (!ReadinessProbes.hasApplicationProbes()) {
+            return new Result(true, null, 0);
+        }
+        // Application hooks still need the page; DevTools only replaces the network probes
+        ProbePoller poller = new ProbePoller(driver);
+        Duration remaining = Duration.ofNanos(Math.max(0, idleDeadline - System.nanoTime()));
+        List<?> state = poller.pollUntil(ReadinessProbes.applicationProbesScript(), ProbePoller::isIdle, remaining);
+        return new Result(ProbePoller.isIdle(state), ProbePoller.busyProbe(state), poller.getCalls());
+    }
+
+    private boolean awaitNetworkIdle(Duration loadTimeout, Duration idleTimeout) {
+        long loadDeadline = System.nanoTime() + loadTimeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                loadingFrames.values().removeIf(started -> now - started > LONG_REQUEST_NANOS);
+                if (!initialLoadPending && loadingFrames.isEmpty()) {
+                    break;
+                }
+                long wakeUp = loadingFrames.values().stream()
+                        .mapToLong(started -> started + LONG_REQUEST_NANOS)
+                        .min()
+                        .orElse(loadDeadline);
+                if (!awaitChange(Math.min(wakeUp, loadDeadline)) && System.nanoTime() >= loadDeadline) {
+                    throw new TimeoutException("Page did not finish loading within " + loadTimeout);
+                }
+            }
+            long idleDeadline = System.nanoTime() + idleTimeout.toNanos();
+            while (true) {
+                long now = System.nanoTime();
+                inflightRequests.values().removeIf(started -> now - started > LONG_REQUEST_NANOS);
+                long quietUntil = lastActivityNanos + QUIET_PERIOD.toNanos();
+                if (inflightRequests.isEmpty() && now >= quietUntil) {
+                    return true;
+                }
+                long wakeUp = inflightRequests.isEmpty() ? Math.min(quietUntil, idleDeadline) : idleDeadline;
+                if (!awaitChange(wakeUp) && System.nanoTime() >= idleDeadline) {
+                    return inflightRequests.isEmpty();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for page readiness", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "cdp";
+    }
+
+    @Override
+    public void close() {
+        devTools.clearListeners();
+        devTools.close();
+    }
+
+    /**
+     * Waits for the next protocol event or until {@code deadlineNanos}; returns {@code false} on timeout.
+     */
+    private boolean awaitChange(long deadlineNanos) throws InterruptedException {
+        long remaining = deadlineNanos - System.nanoTime();
+        return remaining > 0 && changed.awaitNanos(remaining) > 0;
+    }
+
+    private void update(Runnable mutation) {
+        lock.lock();
+        try {
+            mutation.run();
+            lastActivityNanos = System.nanoTime();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> (Map<String, Object>) input.read(Json.MAP_TYPE));
+    }
+}
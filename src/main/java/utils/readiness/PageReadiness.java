@@ -0,0 +1,55 @@
+package utils.readiness;
+
+import base.DriverLease;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Decides when a page has finished loading. Implementations are kept per browser session, so listeners and
+ * injected scripts are set up once and reused by every page of every test that leases the session.
+ */
+public interface PageReadiness {
+
+    /**
+     * Blocks until the document has loaded and the page has stopped issuing network requests.
+     *
+     * @param loadTimeout maximum time for the document to load; exceeded means a
+     *                    {@link org.openqa.selenium.TimeoutException}
+     * @param idleTimeout maximum additional time to wait for outstanding requests and application hooks
+     */
+    Result awaitReady(Duration loadTimeout, Duration idleTimeout);
+
+    /**
+     * Short name of the strategy, used in report messages.
+     */
+    String getName();
+
+    /**
+     * Returns the readiness engine for {@code driver}: event-driven over the Chrome DevTools Protocol when the
+     * browser supports it, otherwise a JavaScript probe. Engines of leased sessions are cached on the session.
+     */
+    static PageReadiness forDriver(WebDriver driver) {
+        return DriverLease.current()
+                .filter(lease -> lease.getDriver() == driver)
+                .map(lease -> lease.getSession().attachment(PageReadiness.class,
+                        session -> create(session.getDriver())))
+                .orElseGet(() -> create(driver));
+    }
+
+    /**
+     * Outcome of a readiness wait.
+     *
+     * @param idle       {@code false} if the page was still busy when the idle timeout elapsed
+     * @param busyProbe  name of the first probe still reporting activity, or {@code null}
+     * @param probeCalls number of probe scripts executed through the driver
+     */
+    record Result(boolean idle, String busyProbe, int probeCalls) {
+    }
+
+    private static PageReadiness create(WebDriver driver) {
+        Optional<CdpPageReadiness> cdp = CdpPageReadiness.attach(driver);
+        return cdp.isPresent() ? cdp.get() : new ScriptPageReadiness(driver);
+    }
+}
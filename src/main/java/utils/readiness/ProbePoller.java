@@ -0,0 +1,70 @@
+package utils.readiness;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Runs a compiled probe script with an adaptive interval: the first re-check follows after 25 ms, then the
+ * interval backs off to 500 ms, so pages that settle quickly are detected quickly without flooding the driver.
+ */
+final class ProbePoller {
+    private static final long INITIAL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(25);
+    private static final long MAX_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final double BACKOFF = 1.5;
+
+    private final JavascriptExecutor js;
+    private int calls;
+
+    ProbePoller(WebDriver driver) {
+        this.js = (JavascriptExecutor) driver;
+    }
+
+    /**
+     * Polls until {@code condition} holds and returns the matching probe result, or the last result once
+     * {@code timeout} has elapsed.
+     */
+    List<?> pollUntil(String script, Predicate<List<?>> condition, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long interval = INITIAL_INTERVAL_NANOS;
+        while (true) {
+            List<?> result = probe(script);
+            long remaining = deadline - System.nanoTime();
+            if (condition.test(result) || remaining <= 0) {
+                return result;
+            }
+            LockSupport.parkNanos(Math.min(interval, remaining));
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                return result;
+            }
+            interval = Math.min((long) (interval * BACKOFF), MAX_INTERVAL_NANOS);
+        }
+    }
+
+    List<?> probe(String script) {
+        calls++;
+        return (List<?>) js.executeScript(script);
+    }
+
+    int getCalls() {
+        return calls;
+    }
+
+    static boolean isDocumentComplete(List<?> result) {
+        return Boolean.TRUE.equals(result.get(0));
+    }
+
+    static boolean isIdle(List<?> result) {
+        return Boolean.TRUE.equals(result.get(1));
+    }
+
+    static String busyProbe(List<?> result) {
+        return (String) result.get(2);
+    }
+}
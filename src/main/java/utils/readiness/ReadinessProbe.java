@@ -0,0 +1,45 @@
+package utils.readiness;
+
+/**
+ * A JavaScript check contributing to page readiness, e.g. "no pending jQuery requests". All registered probes
+ * are compiled into one script by {@link ReadinessProbes}, so adding a probe costs no extra round trips.
+ */
+public interface ReadinessProbe {
+
+    String getName();
+
+    /**
+     * JavaScript expression evaluating to {@code true} once the page is idle from this probe's point of view.
+     * It must not throw when the library it inspects is absent.
+     */
+    String getIdleExpression();
+
+    /**
+     * Optional statements run before the expression on every poll, e.g. to install instrumentation once.
+     */
+    default String getSetupScript() {
+        return "";
+    }
+
+    /**
+     * Whether the probe only tracks network activity. Network probes are skipped when DevTools already reports
+     * in-flight requests; application hooks are evaluated either way.
+     */
+    default boolean isNetworkProbe() {
+        return false;
+    }
+
+    static ReadinessProbe of(String name, String idleExpression) {
+        return new ReadinessProbe() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getIdleExpression() {
+                return idleExpression;
+            }
+        };
+    }
+}
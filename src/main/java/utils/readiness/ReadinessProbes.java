@@ -0,0 +1,135 @@
+package utils.readiness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of readiness probes. jQuery, Angular and fetch/XHR probes are registered by default; applications
+ * add their own hooks with {@link #register(ReadinessProbe)}.
+ * <p>
+ * The compiled script returns {@code [documentComplete, idle, firstBusyProbe]}. A probe that throws is treated
+ * as not applicable to the page.
+ */
+public final class ReadinessProbes {
+    public static final ReadinessProbe JQUERY = networkProbe("jquery",
+            "", "typeof jQuery === 'undefined' || jQuery.active == 0");
+    public static final ReadinessProbe ANGULAR = networkProbe("angular",
+            "",
+            "typeof angular === 'undefined' || angular.element(document).injector() === undefined"
+                    + " || angular.element(document).injector().get('$http').pendingRequests.length === 0");
+    public static final ReadinessProbe FETCH_XHR = networkProbe("fetch-xhr",
+            "if (!window.__readinessInstalled) {"
+                    + "  window.__readinessInstalled = true;"
+                    + "  window.__readinessPending = 0;"
+                    + "  var done = function () { window.__readinessPending--; };"
+                    + "  if (window.fetch) {"
+                    + "    var fetch0 = window.fetch;"
+                    + "    window.fetch = function () {"
+                    + "      window.__readinessPending++;"
+                    + "      return fetch0.apply(this, arguments).finally(done);"
+                    + "    };"
+                    + "  }"
+                    + "  var send0 = XMLHttpRequest.prototype.send;"
+                    + "  XMLHttpRequest.prototype.send = function () {"
+                    + "    window.__readinessPending++;"
+                    + "    this.addEventListener('loadend', done);"
+                    + "    return send0.apply(this, arguments);"
+                    + "  };"
+                    + "}",
+            "window.__readinessPending === 0"
+                    + " && (window.fetchCallsInProgress === undefined || window.fetchCallsInProgress === 0)");
+
+    private static final Map<String, ReadinessProbe> PROBES = new ConcurrentHashMap<>();
+    private static volatile Scripts scripts;
+
+    static {
+        register(JQUERY);
+        register(ANGULAR);
+        register(FETCH_XHR);
+    }
+
+    private ReadinessProbes() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void register(ReadinessProbe probe) {
+        PROBES.put(probe.getName(), probe);
+        scripts = null;
+    }
+
+    public static void unregister(String name) {
+        PROBES.remove(name);
+        scripts = null;
+    }
+
+    /**
+     * Script evaluating every registered probe.
+     */
+    static String allProbesScript() {
+        return compiled().all;
+    }
+
+    /**
+     * Script evaluating only application hooks, for engines that observe the network themselves.
+     */
+    static String applicationProbesScript() {
+        return compiled().application;
+    }
+
+    static boolean hasApplicationProbes() {
+        return compiled().application != null;
+    }
+
+    private static Scripts compiled() {
+        Scripts current = scripts;
+        if (current == null) {
+            List<ReadinessProbe> all = new ArrayList<>(PROBES.values());
+            List<ReadinessProbe> application = all.stream().filter(probe -> !probe.isNetworkProbe()).toList();
+            current = new Scripts(compile(all), application.isEmpty() ? null : compile(application));
+            scripts = current;
+        }
+        return current;
+    }
+
+    private static String compile(List<ReadinessProbe> probes) {
+        StringBuilder script = new StringBuilder("var busy = null;");
+        for (ReadinessProbe probe : probes) {
+            String name = probe.getName().replace("'", "\\'");
+            script.append("try {")
+                    .append(probe.getSetupScript())
+                    .append(" if (busy === null && !(").append(probe.getIdleExpression()).append(")) { busy = '")
+                    .append(name).append("'; }")
+                    .append("} catch (e) { }");
+        }
+        return script.append("return [document.readyState === 'complete', busy === null, busy];").toString();
+    }
+
+    private static ReadinessProbe networkProbe(String name, String setupScript, String idleExpression) {
+        return new ReadinessProbe() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getIdleExpression() {
+                return idleExpression;
+            }
+
+            @Override
+            public String getSetupScript() {
+                return setupScript;
+            }
+
+            @Override
+            public boolean isNetworkProbe() {
+                return true;
+            }
+        };
+    }
+
+    private record Scripts(String all, String application) {
+    }
+}
@@ -0,0 +1,38 @@
+package utils.readiness;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Fallback readiness for drivers without DevTools: document state and every registered
+ * {@link ReadinessProbe} are evaluated by one script per poll.
+ */
+class ScriptPageReadiness implements PageReadiness {
+    private final WebDriver driver;
+
+    ScriptPageReadiness(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    @Override
+    public Result awaitReady(Duration loadTimeout, Duration idleTimeout) {
+        ProbePoller poller = new ProbePoller(driver);
+        String script = ReadinessProbes.allProbesScript();
+        List<?> state = poller.pollUntil(script, ProbePoller::isDocumentComplete, loadTimeout);
+        if (!ProbePoller.isDocumentComplete(state)) {
+            throw new TimeoutException("Page did not finish loading within " + loadTimeout);
+        }
+        if (!ProbePoller.isIdle(state)) {
+            state = poller.pollUntil(script, ProbePoller::isIdle, idleTimeout);
+        }
+        return new Result(ProbePoller.isIdle(state), ProbePoller.busyProbe(state), poller.getCalls());
+    }
+
+    @Override
+    public String getName() {
+        return "script";
+    }
+}
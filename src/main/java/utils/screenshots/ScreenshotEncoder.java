@@ -0,0 +1,104 @@
+package utils.screenshots;
+
+import ai.OpenCVLibrary;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Re-encodes PNG screenshots as configured by {@code screenshot.format} ({@code png}, {@code jpeg} or
+ * {@code webp}) and {@code screenshot.quality} (1-100). PNG is passed through untouched and is also used for an
+ * unknown format; WebP needs OpenCV and falls back to PNG without it.
+ */
+enum ScreenshotEncoder {
+    PNG("png") {
+        @Override
+        byte[] encode(byte[] png, int quality) {
+            return png;
+        }
+    },
+    JPEG("jpg") {
+        @Override
+        byte[] encode(byte[] png, int quality) throws IOException {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+            // JPEG has no alpha channel, draw onto an opaque RGB image first
+            BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+            rgb.createGraphics().drawImage(source, 0, 0, null);
+
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(png.length / 4);
+            try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality / 100f);
+                writer.setOutput(stream);
+                writer.write(null, new IIOImage(rgb, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            return out.toByteArray();
+        }
+    },
+    WEBP("webp") {
+        @Override
+        byte[] encode(byte[] png, int quality) {
+            Mat image = Imgcodecs.imdecode(new MatOfByte(png), Imgcodecs.IMREAD_COLOR);
+            MatOfByte webp = new MatOfByte();
+            try {
+                if (image.empty() || !Imgcodecs.imencode(".webp", image, webp,
+                        new MatOfInt(Imgcodecs.IMWRITE_WEBP_QUALITY, quality))) {
+                    throw new IllegalStateException("OpenCV could not encode screenshot as WebP");
+                }
+                return webp.toArray();
+            } finally {
+                image.release();
+                webp.release();
+            }
+        }
+    };
+
+    private static final Logger LOGGER = LogManager.getLogger(ScreenshotEncoder.class);
+
+    private final String extension;
+
+    ScreenshotEncoder(String extension) {
+        this.extension = extension;
+    }
+
+    String getExtension() {
+        return extension;
+    }
+
+    abstract byte[] encode(byte[] png, int quality) throws IOException;
+
+    static ScreenshotEncoder forFormat(String format) {
+        ScreenshotEncoder encoder = switch (format.toLowerCase(Locale.ROOT)) {
+            case "png" -> PNG;
+            case "jpg", "jpeg" -> JPEG;
+            case "webp" -> WEBP;
+            default -> {
+                LOGGER.warn("Unsupported screenshot.format={}, writing PNG instead", format);
+                yield PNG;
+            }
+        };
+        if (encoder == WEBP && !OpenCVLibrary.isAvailable()) {
+            LOGGER.warn("screenshot.format=webp needs OpenCV, writing PNG instead");
+            return PNG;
+        }
+        return encoder;
+    }
+}
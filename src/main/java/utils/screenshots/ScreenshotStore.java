@@ -0,0 +1,183 @@
+package utils.screenshots;
+
+import ai.ImageHash;
+import ai.OpenCVLibrary;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed screenshot storage: a screenshot is stored once under the hash of its content and every
+ * later identical one resolves to the same file. With {@code sha256} only byte-identical screenshots are shared;
+ * {@code dhash} also folds screenshots that differ by at most {@code maxDistance} bits of their perceptual hash,
+ * e.g. the same error page with a different clock, but also different failures that leave the same page looking
+ * alike. {@code off} stores every screenshot under its own name, suffixed when a name repeats.
+ */
+final class ScreenshotStore {
+    private static final Logger LOGGER = LogManager.getLogger(ScreenshotStore.class);
+
+    enum Mode {
+        OFF, SHA256, DHASH
+    }
+
+    private final Path directory;
+    private final ScreenshotEncoder encoder;
+    private final int quality;
+    private final Mode mode;
+    private final int maxDistance;
+    private final Map<String, CompletableFuture<Path>> stored = new ConcurrentHashMap<>();
+    private final Map<Long, String> perceptualKeys = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    ScreenshotStore(Path directory, ScreenshotEncoder encoder, int quality, String mode, int maxDistance) {
+        this.directory = directory;
+        this.encoder = encoder;
+        this.quality = quality;
+        this.maxDistance = maxDistance;
+        Mode requested;
+        try {
+            requested = Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Unsupported screenshot.dedup={}, using sha256", mode);
+            requested = Mode.SHA256;
+        }
+        if (requested == Mode.DHASH && !OpenCVLibrary.isAvailable()) {
+            LOGGER.warn("screenshot.dedup=dhash needs OpenCV, using sha256");
+            requested = Mode.SHA256;
+        }
+        this.mode = requested;
+    }
+
+    /**
+     * Stores {@code png} unless the same content is already stored, and returns the file holding it.
+     */
+    Path store(byte[] png, String name) {
+        requests.incrementAndGet();
+        if (mode == Mode.OFF) {
+            return storeUnder(name, png);
+        }
+        String key = keyOf(png);
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> existing = stored.putIfAbsent(key, mine);
+        if (existing != null) {
+            Path file = join(existing);
+            hits.incrementAndGet();
+            savedBytes.addAndGet(sizeOf(file));
+            LOGGER.debug("Screenshot {} deduplicated to {}", name, file);
+            return file;
+        }
+        try {
+            Path file = directory.resolve(key + "." + encoder.getExtension());
+            if (Files.exists(file)) {
+                // Stored by an earlier run into the same report directory
+                hits.incrementAndGet();
+                savedBytes.addAndGet(Files.size(file));
+            } else {
+                byte[] encoded = encoder.encode(png, quality);
+                Files.write(file, encoded);
+                storedBytes.addAndGet(encoded.length);
+            }
+            mine.complete(file);
+            return file;
+        } catch (IOException e) {
+            abandon(key, mine, e);
+            throw new UncheckedIOException("Failed to store screenshot " + name, e);
+        } catch (RuntimeException e) {
+            abandon(key, mine, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes {@code png} as {@code name}, or as {@code name_2}, {@code name_3}, ... when that file exists, so a
+     * test failing repeatedly within the same second keeps every screenshot.
+     */
+    private Path storeUnder(String name, byte[] png) {
+        try {
+            byte[] encoded = encoder.encode(png, quality);
+            for (int attempt = 1; ; attempt++) {
+                String fileName = (attempt == 1 ? name : name + "_" + attempt) + "." + encoder.getExtension();
+                try {
+                    Path file = Files.write(directory.resolve(fileName), encoded, StandardOpenOption.CREATE_NEW);
+                    storedBytes.addAndGet(encoded.length);
+                    return file;
+                } catch (FileAlreadyExistsException e) {
+                    // Taken by an earlier screenshot of the same name, try the next suffix
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store screenshot " + name, e);
+        }
+    }
+
+    ScreenshotWriter.Stats getStats() {
+        return new ScreenshotWriter.Stats(mode.name().toLowerCase(Locale.ROOT), requests.get(), hits.get(),
+                requests.get() - hits.get(), storedBytes.get(), savedBytes.get());
+    }
+
+    private String keyOf(byte[] png) {
+        if (mode == Mode.SHA256) {
+            return sha256(png);
+        }
+        long hash = ImageHash.dHash(png);
+        if (maxDistance > 0) {
+            for (Map.Entry<Long, String> known : perceptualKeys.entrySet()) {
+                if (ImageHash.distance(known.getKey(), hash) <= maxDistance) {
+                    return known.getValue();
+                }
+            }
+        }
+        String key = "d" + HexFormat.of().toHexDigits(hash);
+        String raced = perceptualKeys.putIfAbsent(hash, key);
+        return raced != null ? raced : key;
+    }
+
+    private void abandon(String key, CompletableFuture<Path> attempt, Exception cause) {
+        // Waiting duplicates fail with this attempt, later ones try again
+        stored.remove(key, attempt);
+        attempt.completeExceptionally(cause);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Path join(CompletableFuture<Path> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package utils.screenshots;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import utils.GenericUtil;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes and stores screenshots off the test thread. Only the capture itself has to happen while the test still
+ * holds its browser session; everything after that runs on a small bounded pool. When the pool is saturated the
+ * submitting thread does the work itself, which keeps memory bounded without dropping screenshots.
+ */
+public final class ScreenshotWriter {
+    private static final Logger LOGGER = LogManager.getLogger(ScreenshotWriter.class);
+    private static final Properties CONFIG = GenericUtil.getConfig();
+    private static final int THREADS = Integer.parseInt(CONFIG.getProperty("screenshot.writerThreads", "2"));
+    private static final int QUEUE_CAPACITY = Integer.parseInt(CONFIG.getProperty("screenshot.queueCapacity", "16"));
+    private static final ScreenshotStore STORE = new ScreenshotStore(
+            Paths.get(GenericUtil.getScreenShotPath()),
+            ScreenshotEncoder.forFormat(CONFIG.getProperty("screenshot.format", "png")),
+            Integer.parseInt(CONFIG.getProperty("screenshot.quality", "80")),
+            CONFIG.getProperty("screenshot.dedup", "sha256"),
+            Integer.parseInt(CONFIG.getProperty("screenshot.dedup.maxDistance", "0")));
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private ScreenshotWriter() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Takes a screenshot of the current viewport as PNG bytes, without going through a temporary file.
+     */
+    public static byte[] capture(WebDriver driver) {
+        return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+    }
+
+    /**
+     * Encodes {@code png} in the configured format and stores it in the screenshot directory. Identical
+     * screenshots share one file (see {@link ScreenshotStore}); {@code name} is used when deduplication is off.
+     *
+     * @return a future completing with the file holding the screenshot
+     */
+    public static CompletableFuture<Path> write(byte[] png, String name) {
+        return CompletableFuture.supplyAsync(() -> encodeAndWrite(png, name), EXECUTOR);
+    }
+
+    public static Stats getStats() {
+        return STORE.getStats();
+    }
+
+    private static Path encodeAndWrite(byte[] png, String name) {
+        long start = System.nanoTime();
+        Path file = STORE.store(png, name);
+        LOGGER.info("Screenshot {} stored as {} in {} ms", name, file.getFileName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return file;
+    }
+
+    /**
+     * Deduplication counters: {@code stored} screenshots were written, {@code hits} resolved to an existing file.
+     */
+    public record Stats(String mode, long requests, long hits, long stored, long storedBytes, long savedBytes) {
+        public double hitRate() {
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "screenshot-writer-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,122 @@
+package utils.waitstats;
+
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of durations in microseconds, in the spirit of HdrHistogram: every power of two
+ * is split into 32 linear sub-buckets, giving about 3% relative precision from 1 µs up to several hours with a
+ * fixed 1 088-slot array. Recording is a single atomic increment.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 32;
+    private static final long MAX_VALUE = (2L * SUB_BUCKETS << MAX_SHIFT) - 1;
+    private static final int BUCKET_COUNT = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalMicros.add(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.getCount());
+        totalMicros.add(other.getTotalMicros());
+        maxMicros.accumulateAndGet(other.getMaxMicros(), Math::max);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile (0-100), or 0 when empty.
+     */
+    public long getPercentileMicros(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    /**
+     * Compact form: {@code count;totalMicros;maxMicros;index:count,index:count...} listing non-empty buckets.
+     */
+    String encode() {
+        StringJoiner buckets = new StringJoiner(",");
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                buckets.add(i + ":" + count);
+            }
+        }
+        return getCount() + ";" + getTotalMicros() + ";" + getMaxMicros() + ";" + buckets;
+    }
+
+    static LatencyHistogram decode(String encoded) {
+        String[] parts = encoded.split(";", -1);
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.totalCount.add(Long.parseLong(parts[0]));
+        histogram.totalMicros.add(Long.parseLong(parts[1]));
+        histogram.maxMicros.set(Long.parseLong(parts[2]));
+        if (!parts[3].isEmpty()) {
+            for (String bucket : parts[3].split(",")) {
+                int separator = bucket.indexOf(':');
+                histogram.counts.set(Integer.parseInt(bucket.substring(0, separator)),
+                        Long.parseLong(bucket.substring(separator + 1)));
+            }
+        }
+        return histogram;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,87 @@
+package utils.waitstats;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the "slowest waits" report as CSV and HTML, one row per page/operation/locator.
+ */
+final class WaitReport {
+    private static final String[] COLUMNS = {"page", "operation", "locator", "count", "total ms", "p50 ms",
+            "p95 ms", "p99 ms", "max ms"};
+
+    private WaitReport() {
+        // Private constructor to prevent instantiation
+    }
+
+    static void write(Map<WaitStatistics.Key, LatencyHistogram> histograms, Path directory) throws IOException {
+        List<Map.Entry<WaitStatistics.Key, LatencyHistogram>> rows = new ArrayList<>(histograms.entrySet());
+        rows.sort(Comparator.comparingLong(
+                (Map.Entry<WaitStatistics.Key, LatencyHistogram> row) -> row.getValue().getTotalMicros()).reversed());
+
+        try (BufferedWriter csv = Files.newBufferedWriter(directory.resolve("slowest-waits.csv"), StandardCharsets.UTF_8);
+             BufferedWriter html = Files.newBufferedWriter(directory.resolve("slowest-waits.html"), StandardCharsets.UTF_8)) {
+            csv.write(String.join(",", COLUMNS));
+            csv.newLine();
+            html.write("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Slowest waits</title>"
+                    + "<style>body{font-family:sans-serif}table{border-collapse:collapse}"
+                    + "td,th{border:1px solid #ccc;padding:4px 8px}td.n{text-align:right}</style></head><body>"
+                    + "<h1>Slowest waits</h1><table><tr>");
+            for (String column : COLUMNS) {
+                html.write("<th>" + column + "</th>");
+            }
+            html.write("</tr>");
+
+            for (Map.Entry<WaitStatistics.Key, LatencyHistogram> row : rows) {
+                String[] values = values(row.getKey(), row.getValue());
+                csv.write(csvLine(values));
+                csv.newLine();
+                html.write("<tr>");
+                for (int i = 0; i < values.length; i++) {
+                    html.write((i >= 3 ? "<td class=\"n\">" : "<td>") + escapeHtml(values[i]) + "</td>");
+                }
+                html.write("</tr>");
+            }
+            html.write("</table></body></html>");
+        }
+    }
+
+    private static String[] values(WaitStatistics.Key key, LatencyHistogram histogram) {
+        return new String[]{
+                key.page(),
+                key.operation(),
+                key.locator(),
+                String.valueOf(histogram.getCount()),
+                millis(histogram.getTotalMicros()),
+                millis(histogram.getPercentileMicros(50)),
+                millis(histogram.getPercentileMicros(95)),
+                millis(histogram.getPercentileMicros(99)),
+                millis(histogram.getMaxMicros())};
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+
+    private static String csvLine(String[] values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append('"').append(values[i].replace("\"", "\"\"")).append('"');
+        }
+        return line.toString();
+    }
+
+    private static String escapeHtml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,137 @@
+package utils.waitstats;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebElement;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-page, per-locator timing of waits and element operations. Callers name the page; timings outside any page
+ * object are recorded under {@value #NO_PAGE}. Histograms are merged into
+ * {@code target/wait-stats/wait-stats.tsv} at suite end, so figures accumulate across runs, and a "slowest
+ * waits" report is written next to it as CSV and HTML, ordered by total time spent.
+ */
+public final class WaitStatistics {
+    private static final Logger LOGGER = LogManager.getLogger(WaitStatistics.class);
+    private static final Path STATS_DIR = Paths.get(System.getProperty("user.dir"), "target", "wait-stats");
+    private static final Path STORE = STATS_DIR.resolve("wait-stats.tsv");
+    public static final String NO_PAGE = "-";
+
+    private static final Map<Key, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private WaitStatistics() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Runs {@code operation} and records its duration, also when it fails, against {@code page} and the given
+     * locator, element or condition.
+     */
+    public static <T> T time(String page, String operation, Object target, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(page, operation, target, System.nanoTime() - start);
+        }
+    }
+
+    public static void time(String page, String operation, Object target, Runnable action) {
+        time(page, operation, target, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static void record(String page, String operation, Object target, long nanos) {
+        Key key = new Key(page, operation, describe(target));
+        HISTOGRAMS.computeIfAbsent(key, k -> new LatencyHistogram()).record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * Merges this run into the persisted statistics and regenerates the slowest-waits report.
+     */
+    public static synchronized void saveAndReport() {
+        Map<Key, LatencyHistogram> merged = load();
+        HISTOGRAMS.forEach((key, histogram) ->
+                merged.computeIfAbsent(key, k -> new LatencyHistogram()).merge(histogram));
+        HISTOGRAMS.clear();
+        try {
+            Files.createDirectories(STATS_DIR);
+            write(merged);
+            WaitReport.write(merged, STATS_DIR);
+            LOGGER.info("Wait statistics for {} locators written to {}", merged.size(), STATS_DIR);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write wait statistics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stable description of a locator, element or condition; element descriptions drop the session id.
+     */
+    public static String describe(Object target) {
+        if (target instanceof WebElement) {
+            String description = target.toString();
+            int locatorStart = description.lastIndexOf(" -> ");
+            return locatorStart >= 0 ? description.substring(locatorStart + 4, description.length() - 1) : description;
+        }
+        if (target != null && target.getClass().isSynthetic()) {
+            // Lambda names change between runs, only the class declaring the lambda is stable
+            String name = target.getClass().getName();
+            int lambdaStart = name.indexOf("$$Lambda");
+            return "lambda in " + (lambdaStart >= 0 ? name.substring(0, lambdaStart) : name);
+        }
+        return String.valueOf(target);
+    }
+
+    private static Map<Key, LatencyHistogram> load() {
+        Map<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+        if (!Files.exists(STORE)) {
+            return histograms;
+        }
+        try {
+            for (String line : Files.readAllLines(STORE, StandardCharsets.UTF_8)) {
+                String[] columns = line.split("\t");
+                if (columns.length == 4) {
+                    histograms.put(new Key(columns[0], columns[1], columns[2]), LatencyHistogram.decode(columns[3]));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable wait statistics {}: {}", STORE, e.getMessage());
+            histograms.clear();
+        }
+        return histograms;
+    }
+
+    private static void write(Map<Key, LatencyHistogram> histograms) throws IOException {
+        List<Map.Entry<Key, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        entries.sort(Comparator.comparing(entry -> entry.getKey().toString()));
+        try (BufferedWriter writer = Files.newBufferedWriter(STORE, StandardCharsets.UTF_8)) {
+            for (Map.Entry<Key, LatencyHistogram> entry : entries) {
+                Key key = entry.getKey();
+                writer.write(key.page() + "\t" + key.operation() + "\t" + key.locator() + "\t"
+                        + entry.getValue().encode());
+                writer.newLine();
+            }
+        }
+    }
+
+    record Key(String page, String operation, String locator) {
+        Key {
+            locator = locator.replaceAll("[\\t\\r\\n]+", " ");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ai;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class HashPrefilterTest {
+    private Mat image;
+    private long hash;
+
+    @BeforeClass
+    public void createImage() {
+        Assert.assertTrue(OpenCVLibrary.isAvailable(), "OpenCV is not loaded");
+        image = new Mat(64, 72, CvType.CV_8UC1, new Scalar(200));
+        Mat half = image.submat(new Rect(36, 0, 36, 64));
+        half.setTo(new Scalar(50));
+        half.release();
+        hash = ImageHash.dHash(image);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void releaseImage() {
+        if (image != null) {
+            image.release();
+        }
+    }
+
+    @Test(description = "A disabled prefilter never skips the diff nor counts checks")
+    public void disabled() {
+        HashPrefilter prefilter = new HashPrefilter(false, 64);
+
+        Assert.assertFalse(prefilter.skipsDiff(hash, image));
+        Assert.assertEquals(prefilter.stats(), new OpenCVUtil.PrefilterStats(0, 0));
+    }
+
+    @Test(description = "An enabled prefilter skips the diff only within the maximum hash distance")
+    public void enabled() {
+        HashPrefilter prefilter = new HashPrefilter(true, 0);
+
+        Assert.assertTrue(prefilter.skipsDiff(hash, image));
+        Assert.assertFalse(prefilter.skipsDiff(hash ^ 1L, image));
+        Assert.assertEquals(prefilter.stats(), new OpenCVUtil.PrefilterStats(2, 1));
+        Assert.assertTrue(new HashPrefilter(true, 1).skipsDiff(hash ^ 1L, image));
+    }
+
+    @Test(description = "A prefiltered result matches with an unmeasured similarity")
+    public void prefilteredResult() {
+        ImageDiff.Result result = ImageDiff.Result.ofPrefilter(image);
+
+        Assert.assertTrue(result.prefiltered());
+        Assert.assertTrue(Double.isNaN(result.similarity()), "Similarity was not measured");
+        Assert.assertTrue(result.matches(0.999));
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import com.aventstack.extentreports.Status;
+import utils.listeners.ExtentTestHandle;
+import utils.listeners.ExtentTestManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the test-thread cost of {@link ExtentTestHandle#log(Status, String)} with several threads logging
+ * at once, and the time the writer needs to apply and render everything afterwards.
+ * <p>
+ * Pass {@code -Dreport.mode=streaming} to measure the streaming result store instead of the Extent report.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes:<deps> benchmarks.ExtentLoggingBenchmark}.
+ */
+public class ExtentLoggingBenchmark {
+    private static final int THREADS = 8;
+    private static final int TESTS_PER_THREAD = 20;
+    private static final int LOGS_PER_TEST = 50;
+
+    public static void main(String[] args) throws Exception {
+        // First round warms up the JIT and the writer
+        runRound("warm-up");
+        runRound("measured");
+    }
+
+    private static void runRound(String label) throws InterruptedException {
+        LongAdder logNanos = new LongAdder();
+        CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            int threadIndex = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < TESTS_PER_THREAD; i++) {
+                    ExtentTestHandle test = ExtentTestManager.startTest(null, label + "-" + threadIndex + "-" + i);
+                    long start = System.nanoTime();
+                    for (int j = 0; j < LOGS_PER_TEST; j++) {
+                        test.log(Status.INFO, "step " + j);
+                    }
+                    logNanos.add(System.nanoTime() - start);
+                    ExtentTestManager.endTest(test);
+                }
+                done.countDown();
+            });
+            worker.start();
+        }
+        done.await();
+
+        long flushStart = System.nanoTime();
+        ExtentTestManager.flush();
+        long flushMillis = (System.nanoTime() - flushStart) / 1_000_000;
+
+        long calls = (long) THREADS * TESTS_PER_THREAD * LOGS_PER_TEST;
+        System.out.printf("%s: %d log calls on %d threads: %.0f ns/call on the test thread%n",
+                label, calls, THREADS, logNanos.sum() / (double) calls);
+        System.out.printf("%s: writer drained and rendered the report in %d ms%n", label, flushMillis);
+    }
+}
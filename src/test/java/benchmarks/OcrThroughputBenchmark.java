@@ -0,0 +1,95 @@
+package benchmarks;
+
+import ai.OcrEngine;
+import ai.OpenCVLibrary;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OCR calls per second at 1, 4 and 8 caller threads, each thread reading rendered text labels. "pooled" runs
+ * the pre-initialised {@link OcrEngine} with its result cache off, so every call reaches Tesseract; "cached"
+ * turns the cache on, as in a suite that reads the same label repeatedly.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes:<deps> benchmarks.OcrThroughputBenchmark [calls]},
+ * with tessdata available (see {@code ocr.tessdata} in {@code config.properties}).
+ */
+public class OcrThroughputBenchmark {
+    private static final int[] THREADS = {1, 4, 8};
+    private static final int LABELS = 32;
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        if (!OpenCVLibrary.isAvailable()) {
+            throw new IllegalStateException("OpenCV native library not available");
+        }
+        List<byte[]> labels = renderLabels();
+
+        System.out.printf("%-8s %8s %12s %10s%n", "mode", "threads", "calls/s", "mean ms");
+        for (int threads : THREADS) {
+            try (OcrEngine engine = new OcrEngine(threads, 0)) {
+                run(engine, labels, threads, calls / 4);
+                print("pooled", threads, calls, run(engine, labels, threads, calls));
+            }
+            try (OcrEngine engine = new OcrEngine(threads, LABELS)) {
+                print("cached", threads, calls, run(engine, labels, threads, calls));
+            }
+        }
+    }
+
+    private static long run(OcrEngine engine, List<byte[]> labels, int threads, int calls) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    int call;
+                    while ((call = next.getAndIncrement()) < calls) {
+                        engine.read(labels.get(call % LABELS), null);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<byte[]> renderLabels() {
+        List<byte[]> labels = new ArrayList<>(LABELS);
+        for (int i = 0; i < LABELS; i++) {
+            Mat label = new Mat(40, 320, CvType.CV_8UC3, new Scalar(255, 255, 255));
+            Imgproc.putText(label, "Order #" + (10_000 + i * 37) + " confirmed", new Point(8, 28),
+                    Imgproc.FONT_HERSHEY_SIMPLEX, 0.7, new Scalar(20, 20, 20), 1, Imgproc.LINE_AA);
+            MatOfByte png = new MatOfByte();
+            Imgcodecs.imencode(".png", label, png);
+            labels.add(png.toArray());
+            png.release();
+            label.release();
+        }
+        return labels;
+    }
+
+    private static void print(String mode, int threads, int calls, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-8s %8d %12.1f %10.2f%n", mode, threads, calls / seconds,
+                TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0 * threads / calls);
+    }
+}
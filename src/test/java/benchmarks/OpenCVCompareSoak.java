@@ -0,0 +1,91 @@
+package benchmarks;
+
+import ai.OpenCVUtil;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Soak test for {@link OpenCVUtil#compareImages}: compares generated 1280x720 image pairs thousands of times and
+ * prints process RSS (from {@code /proc/self/status}) next to the native bytes the comparison reports in use.
+ * RSS should level off after the first report. {@code legacy} runs the former implementation, which never
+ * released its Mats, for comparison.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes:<deps> benchmarks.OpenCVCompareSoak [iterations]
+ * [legacy]}.
+ */
+public class OpenCVCompareSoak {
+    private static final int PAIRS = 16;
+    private static final int REPORT_EVERY = 500;
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        boolean legacy = args.length > 1 && args[1].equals("legacy");
+        OpenCVUtil openCV = OpenCVUtil.getInstance();
+        Path dir = Files.createTempDirectory("opencv-soak");
+        List<String[]> pairs = generatePairs(dir);
+
+        System.out.printf("%10s %12s %14s%n", "compares", "rss MB", "native KB");
+        for (int i = 1; i <= iterations; i++) {
+            String[] pair = pairs.get(i % PAIRS);
+            if (legacy) {
+                legacyCompare(pair[0], pair[1]);
+            } else {
+                openCV.compareImages(pair[0], pair[1], 0.95);
+            }
+            if (i % REPORT_EVERY == 0) {
+                System.out.printf("%10d %12d %14d%n", i, rssKilobytes() / 1024, openCV.getNativeBytesInUse() / 1024);
+            }
+        }
+    }
+
+    private static List<String[]> generatePairs(Path dir) {
+        String[][] pairs = new String[PAIRS][];
+        for (int i = 0; i < PAIRS; i++) {
+            Mat image = new Mat(720, 1280, CvType.CV_8UC3);
+            Core.randu(image, 0, 255);
+            Mat changed = image.clone();
+            Imgproc.rectangle(changed, new Point(100 + i * 10, 100), new Point(300 + i * 10, 200),
+                    new Scalar(0, 0, 255), -1);
+            String expected = dir.resolve("expected-" + i + ".png").toString();
+            String actual = dir.resolve("actual-" + i + ".png").toString();
+            Imgcodecs.imwrite(expected, image);
+            Imgcodecs.imwrite(actual, changed);
+            image.release();
+            changed.release();
+            pairs[i] = new String[]{expected, actual};
+        }
+        return List.of(pairs);
+    }
+
+    private static void legacyCompare(String expectedPath, String actualPath) {
+        Mat expected = Imgcodecs.imread(expectedPath);
+        Mat actual = Imgcodecs.imread(actualPath);
+        Mat diff = new Mat();
+        Core.absdiff(expected, actual, diff);
+        Mat grey = new Mat();
+        Imgproc.cvtColor(diff, grey, Imgproc.COLOR_BGR2GRAY);
+        Mat binary = new Mat();
+        Imgproc.threshold(grey, binary, 30, 255, Imgproc.THRESH_BINARY);
+        Core.countNonZero(binary);
+    }
+
+    private static long rssKilobytes() throws IOException {
+        for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,121 @@
+package benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import utils.GenericUtil;
+import utils.screenshots.ScreenshotWriter;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-failure latency on the test thread: the time between a test failing and its browser session being free
+ * again. "sync" is the former listener path (screenshot as a temp file, copied with commons-io, existence checks
+ * and two directory look-ups); "async" captures bytes and hands them to {@link ScreenshotWriter}.
+ * <p>
+ * The stub driver returns a 1366x768 PNG, so the numbers cover file handling, not the browser round trip.
+ * Run with {@code java -cp target/classes:target/test-classes:<deps> benchmarks.ScreenshotTeardownBenchmark},
+ * with the {@code screenshot.format} set in {@code config.properties}.
+ */
+public class ScreenshotTeardownBenchmark {
+    private static final int FAILURES = 100;
+    private static final int WARM_UP = 20;
+    // Failures are spread out as in a real suite, otherwise the writer pool saturates and callers run the work
+    private static final long MILLIS_BETWEEN_FAILURES = 20;
+
+    public static void main(String[] args) throws Exception {
+        WebDriver driver = stubDriver(samplePng());
+
+        runSync(driver, WARM_UP);
+        runAsync(driver, WARM_UP);
+        System.out.printf("%-6s %10s %10s %10s%n", "mode", "mean ms", "p95 ms", "max ms");
+        print("sync", runSync(driver, FAILURES));
+        print("async", runAsync(driver, FAILURES));
+    }
+
+    private static long[] runSync(WebDriver driver, int failures) throws Exception {
+        long[] latencies = new long[failures];
+        for (int i = 0; i < failures; i++) {
+            long start = System.nanoTime();
+            String name = "sync_" + i;
+            File source = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
+            File destination = new File(GenericUtil.getScreenShotPath() + name + ".png");
+            FileUtils.copyFile(source, destination);
+            if (!new File(GenericUtil.getScreenShotPath() + name + ".png").exists()) {
+                throw new IllegalStateException("Screenshot missing: " + destination);
+            }
+            latencies[i] = System.nanoTime() - start;
+            Files.delete(source.toPath());
+            TimeUnit.MILLISECONDS.sleep(MILLIS_BETWEEN_FAILURES);
+        }
+        return latencies;
+    }
+
+    private static long[] runAsync(WebDriver driver, int failures) throws InterruptedException {
+        long[] latencies = new long[failures];
+        List<CompletableFuture<Path>> written = new ArrayList<>();
+        for (int i = 0; i < failures; i++) {
+            long start = System.nanoTime();
+            written.add(ScreenshotWriter.write(ScreenshotWriter.capture(driver), "async_" + i));
+            latencies[i] = System.nanoTime() - start;
+            TimeUnit.MILLISECONDS.sleep(MILLIS_BETWEEN_FAILURES);
+        }
+        CompletableFuture.allOf(written.toArray(new CompletableFuture<?>[0])).join();
+        return latencies;
+    }
+
+    private static void print(String mode, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        System.out.printf("%-6s %10.2f %10.2f %10.2f%n", mode, mean / 1e6,
+                sorted[(int) (sorted.length * 0.95)] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static byte[] samplePng() throws Exception {
+        BufferedImage image = new BufferedImage(1366, 768, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        Random random = new Random(42);
+        for (int i = 0; i < 400; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillRect(random.nextInt(1366), random.nextInt(768), random.nextInt(200), random.nextInt(60));
+            graphics.drawString("Lorem ipsum " + i, random.nextInt(1366), random.nextInt(768));
+        }
+        graphics.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+
+    private static WebDriver stubDriver(byte[] png) {
+        return (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, TakesScreenshot.class},
+                (proxy, method, methodArgs) -> {
+                    if (method.getName().equals("getScreenshotAs")) {
+                        OutputType<?> type = (OutputType<?>) methodArgs[0];
+                        if (type == OutputType.BYTES) {
+                            return png.clone();
+                        }
+                        File file = File.createTempFile("screenshot", ".png");
+                        Files.write(file.toPath(), png);
+                        return file;
+                    }
+                    return method.getName().equals("toString") ? "StubDriver" : null;
+                });
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import ai.OpenCVLibrary;
+import ai.TemplateLocator;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Template search latency on a 1920x1080 screenshot. "pyramid" is {@link TemplateLocator} (coarse search, then
+ * full-resolution refinement); "full" runs a single {@code matchTemplate} over the full-resolution screenshot,
+ * the naive approach. Both include decoding the PNG screenshot.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes:<deps> benchmarks.TemplateLocatorBenchmark}.
+ */
+public class TemplateLocatorBenchmark {
+    private static final int RUNS = 50;
+    private static final Rect TARGET = new Rect(1411, 733, 96, 48);
+
+    public static void main(String[] args) throws Exception {
+        if (!OpenCVLibrary.isAvailable()) {
+            throw new IllegalStateException("OpenCV native library not available");
+        }
+        Mat screen = new Mat(1080, 1920, CvType.CV_8UC3, new Scalar(245, 245, 245));
+        Mat noise = new Mat(1080, 1920, CvType.CV_8UC3);
+        Core.randu(noise, 0, 40);
+        Core.subtract(screen, noise, screen);
+        for (int i = 0; i < 40; i++) {
+            Imgproc.putText(screen, "Widget " + i, new Point(40 + (i % 8) * 230, 60 + (i / 8) * 200),
+                    Imgproc.FONT_HERSHEY_SIMPLEX, 0.8, new Scalar(60, 60, 60), 2);
+        }
+        Imgproc.rectangle(screen, TARGET, new Scalar(30, 120, 220), -1);
+        Imgproc.putText(screen, "Buy", new Point(TARGET.x + 24, TARGET.y + 32), Imgproc.FONT_HERSHEY_SIMPLEX, 0.9,
+                new Scalar(255, 255, 255), 2);
+
+        Path template = Files.createTempFile("template", ".png");
+        Mat templateImage = screen.submat(TARGET);
+        Imgcodecs.imwrite(template.toString(), templateImage);
+        MatOfByte encoded = new MatOfByte();
+        Imgcodecs.imencode(".png", screen, encoded);
+        byte[] screenshot = encoded.toArray();
+
+        TemplateLocator locator = new TemplateLocator(new double[]{1.0}, 0.8);
+        TemplateLocator.Match match = locator.locate(screenshot, template.toString(), null)
+                .orElseThrow(() -> new IllegalStateException("Template not found"));
+        System.out.printf("found at %d,%d (expected %d,%d), score %.3f%n", match.x(), match.y(), TARGET.x, TARGET.y,
+                match.score());
+
+        long[] pyramid = new long[RUNS];
+        long[] full = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            locator.locate(screenshot, template.toString(), null);
+            pyramid[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            fullResolution(screenshot, template.toString());
+            full[i] = System.nanoTime() - start;
+        }
+        System.out.printf("%-8s %10s %10s%n", "mode", "median ms", "p95 ms");
+        print("pyramid", pyramid);
+        print("full", full);
+    }
+
+    private static void fullResolution(byte[] screenshot, String templatePath) {
+        MatOfByte encoded = new MatOfByte(screenshot);
+        Mat image = Imgcodecs.imdecode(encoded, Imgcodecs.IMREAD_GRAYSCALE);
+        Mat template = Imgcodecs.imread(templatePath, Imgcodecs.IMREAD_GRAYSCALE);
+        Mat scores = new Mat();
+        Imgproc.matchTemplate(image, template, scores, Imgproc.TM_CCOEFF_NORMED);
+        Core.minMaxLoc(scores);
+        scores.release();
+        template.release();
+        image.release();
+        encoded.release();
+    }
+
+    private static void print(String mode, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-8s %10.2f %10.2f%n", mode,
+                TimeUnit.NANOSECONDS.toMicros(sorted[sorted.length / 2]) / 1000.0,
+                TimeUnit.NANOSECONDS.toMicros(sorted[(int) (sorted.length * 0.95)]) / 1000.0);
+    }
+}
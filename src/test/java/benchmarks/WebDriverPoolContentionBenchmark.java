@@ -0,0 +1,104 @@
+package benchmarks;
+
+import base.DriverLease;
+import base.WebDriverPool;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stub-driver harness measuring borrow/return throughput of {@link WebDriverPool} under contention.
+ * <p>
+ * "locked" reproduces the former setup: every borrow and return serialised behind one global lock, as
+ * {@code BaseTest} used to do. "lock-free" calls the pool directly. Creating a stub session sleeps for
+ * {@code CREATE_MILLIS} and sessions are retired every {@code MAX_USES} borrows, so creation keeps
+ * happening during the run.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes:<deps> benchmarks.WebDriverPoolContentionBenchmark}.
+ */
+public class WebDriverPoolContentionBenchmark {
+    private static final int[] THREAD_COUNTS = {4, 16, 64};
+    private static final long CREATE_MILLIS = 50;
+    private static final long WORK_MILLIS = 2;
+    private static final int MAX_USES = 20;
+    private static final Duration RUN_DURATION = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-10s %8s %14s%n", "mode", "threads", "borrows/sec");
+        for (int threads : THREAD_COUNTS) {
+            System.out.printf("%-10s %8d %14.0f%n", "locked", threads, run(threads, true));
+            System.out.printf("%-10s %8d %14.0f%n", "lock-free", threads, run(threads, false));
+        }
+    }
+
+    private static double run(int threads, boolean globalLock) throws Exception {
+        WebDriverPool pool = new WebDriverPool(WebDriverPoolContentionBenchmark::stubDriver,
+                threads, threads, 0, MAX_USES, Duration.ZERO);
+        ReentrantLock lock = new ReentrantLock();
+        LongAdder borrows = new LongAdder();
+        long deadline = System.nanoTime() + RUN_DURATION.toNanos();
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        String owner = Thread.currentThread().getName();
+                        DriverLease lease = globalLock ? locked(lock, () -> pool.lease(owner)) : pool.lease(owner);
+                        TimeUnit.MILLISECONDS.sleep(WORK_MILLIS);
+                        if (globalLock) {
+                            locked(lock, () -> {
+                                lease.close();
+                                return null;
+                            });
+                        } else {
+                            lease.close();
+                        }
+                        borrows.increment();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        done.await();
+        pool.close();
+        return borrows.sum() / (double) RUN_DURATION.toSeconds();
+    }
+
+    private static <T> T locked(ReentrantLock lock, PoolCall<T> call) throws Exception {
+        lock.lock();
+        try {
+            return call.call();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static WebDriver stubDriver() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(CREATE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(), new Class<?>[]{WebDriver.class},
+                (proxy, method, methodArgs) -> switch (method.getName()) {
+                    case "getWindowHandle" -> "stub";
+                    case "toString" -> "StubDriver@" + Integer.toHexString(System.identityHashCode(proxy));
+                    default -> null;
+                });
+    }
+
+    @FunctionalInterface
+    private interface PoolCall<T> {
+        T call() throws Exception;
+    }
+}
@@ -0,0 +1,43 @@
+package tests;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.AdaptiveWait;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AdaptiveWaitTest {
+
+    @Test(description = "A stale element aborts the wait instead of retrying until the deadline")
+    public void staleElementAborts() {
+        AtomicInteger attempts = new AtomicInteger();
+        long start = System.nanoTime();
+
+        Assert.expectThrows(StaleElementReferenceException.class, () -> AdaptiveWait.until(null, driver -> {
+            attempts.incrementAndGet();
+            throw new StaleElementReferenceException("stale");
+        }, Duration.ofSeconds(30)));
+
+        Assert.assertEquals(attempts.get(), 1);
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5, "Wait was not aborted");
+    }
+
+    @Test(description = "Retryable exceptions are retried until the deadline")
+    public void missingElementRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        TimeoutException timeout = Assert.expectThrows(TimeoutException.class, () -> AdaptiveWait.until(null,
+                driver -> {
+                    attempts.incrementAndGet();
+                    throw new NoSuchElementException("missing");
+                }, Duration.ofMillis(300)));
+
+        Assert.assertTrue(attempts.get() > 1, "Condition was not retried");
+        Assert.assertTrue(timeout.getCause() instanceof NoSuchElementException);
+    }
+}
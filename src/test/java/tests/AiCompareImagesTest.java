@@ -25,9 +25,7 @@ public class AiCompareImagesTest extends BaseTest {
         String expectedLogoPath = "src/test/java/resources/ai_images/expected/Toolsqa.jpg";
         String actualLogoPath = "src/test/java/resources/ai_images/actual/Toolsqa.jpg";
 
-        aiUtil.captureElementScreenshot(logoElement, actualLogoPath);
-
-        boolean isLogoMatching = aiUtil.compareImages(expectedLogoPath, actualLogoPath, 0.95);
+        boolean isLogoMatching = aiUtil.compareElementScreenshot(logoElement, expectedLogoPath, actualLogoPath, 0.95);
 
         Assert.assertTrue(isLogoMatching, "Logo does not match the expected image");
     }
@@ -0,0 +1,111 @@
+package tests;
+
+import ai.BatchComparison;
+import ai.OpenCVLibrary;
+import ai.OpenCVUtil;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.FileUtils;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BatchComparisonTest {
+
+    private Path root;
+    private Path expectedDir;
+    private Path actualDir;
+    private Path reportDir;
+
+    @BeforeClass
+    public void createImageTrees() throws IOException {
+        Assert.assertTrue(OpenCVLibrary.isAvailable(), "OpenCV is not loaded");
+        root = Files.createTempDirectory("visual-batch");
+        expectedDir = root.resolve("expected");
+        actualDir = root.resolve("actual");
+        reportDir = root.resolve("report");
+        Files.createDirectories(expectedDir.resolve("nested"));
+        Files.createDirectories(actualDir.resolve("nested"));
+
+        Mat image = new Mat(64, 64, CvType.CV_8UC3, new Scalar(120, 120, 120));
+        write(expectedDir.resolve("same.png"), image);
+        write(actualDir.resolve("same.png"), image);
+        write(expectedDir.resolve("nested/changed.png"), image);
+        write(expectedDir.resolve("missing.png"), image);
+        write(expectedDir.resolve("resized.png"), image);
+        // Twice as wide: the pixels outside the overlap alone exceed the change budget, so no tile is diffed
+        Mat wide = new Mat(64, 128, CvType.CV_8UC3, new Scalar(120, 120, 120));
+        write(actualDir.resolve("resized.png"), wide);
+        wide.release();
+
+        Mat block = image.submat(new Rect(16, 16, 24, 24));
+        block.setTo(new Scalar(255, 255, 255));
+        block.release();
+        write(actualDir.resolve("nested/changed.png"), image);
+        image.release();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteImageTrees() throws IOException {
+        if (root != null) {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test(description = "Verify batch comparison statuses and report output")
+    public void verifyBatchComparison() throws IOException {
+        BatchComparison.Summary summary = OpenCVUtil.getInstance().compareDirectories(expectedDir.toString(),
+                actualDir.toString(), 0.95, reportDir.toString());
+
+        Assert.assertEquals(summary.total(), 4, "Every path of both trees should be reported");
+        Assert.assertEquals(summary.count(BatchComparison.Status.PASSED), 1, "Identical pair should pass");
+        Assert.assertEquals(summary.count(BatchComparison.Status.FAILED), 2, "Changed pairs should fail");
+        Assert.assertEquals(summary.count(BatchComparison.Status.MISSING_ACTUAL), 1,
+                "Baseline without capture should be reported missing");
+        Assert.assertFalse(summary.allPassed());
+
+        JsonObject json = JsonParser.parseString(Files.readString(reportDir.resolve("summary.json"),
+                StandardCharsets.UTF_8)).getAsJsonObject();
+        Assert.assertEquals(json.get("total").getAsInt(), 4);
+        Assert.assertEquals(json.getAsJsonObject("counts").get("FAILED").getAsInt(), 2);
+        Assert.assertEquals(json.getAsJsonArray("results").size(), 4);
+        JsonObject changed = result(json, "nested/changed.png");
+        Assert.assertEquals(changed.get("similarity").getAsDouble(), 1.0 - 24.0 * 24 / (64 * 64), 1e-9);
+        JsonObject resized = result(json, "resized.png");
+        Assert.assertTrue(resized.get("similarity").isJsonNull(), "Diff stopped early, similarity is not measured");
+        Assert.assertTrue(resized.get("budgetExceeded").getAsBoolean());
+
+        String failures = Files.readString(reportDir.resolve("failures.html"), StandardCharsets.UTF_8);
+        Assert.assertTrue(failures.contains("nested/changed.png"), "Failed pair missing from the gallery");
+        Assert.assertTrue(failures.contains("missing.png"), "Missing capture missing from the gallery");
+        Assert.assertFalse(failures.contains("same.png"), "Passed pair should not be in the gallery");
+        Assert.assertTrue(failures.contains("diff stopped early"), "Early exit should be reported as such");
+        Assert.assertTrue(Files.exists(reportDir.resolve("outlined/nested/changed.png")),
+                "Outlined capture of the failed pair was not written");
+    }
+
+    private static JsonObject result(JsonObject summary, String path) {
+        for (JsonElement result : summary.getAsJsonArray("results")) {
+            if (result.getAsJsonObject().get("path").getAsString().equals(path)) {
+                return result.getAsJsonObject();
+            }
+        }
+        throw new AssertionError("No result for " + path);
+    }
+
+    private static void write(Path file, Mat image) {
+        Assert.assertTrue(Imgcodecs.imwrite(file.toString(), image), "Cannot write " + file);
+    }
+}
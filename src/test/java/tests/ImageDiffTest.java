@@ -0,0 +1,166 @@
+package tests;
+
+import ai.ImageDiff;
+import ai.MatScratchPool;
+import ai.OpenCVLibrary;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ImageDiffTest {
+    private static final int TILE_SIZE = 16;
+    private static final Scalar BACKGROUND = new Scalar(100, 100, 100);
+    private static final Scalar CHANGE = new Scalar(255, 255, 255);
+
+    private ForkJoinPool pool;
+    private ImageDiff imageDiff;
+
+    @BeforeClass
+    public void createDiff() {
+        Assert.assertTrue(OpenCVLibrary.isAvailable(), "OpenCV is not loaded");
+        pool = new ForkJoinPool(4);
+        imageDiff = new ImageDiff(new MatScratchPool(4), pool, TILE_SIZE);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void shutDownPool() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test(description = "Identical images have no changed pixels")
+    public void identicalImages() {
+        Mat expected = image(64, 64);
+        Mat actual = expected.clone();
+
+        ImageDiff.Result result = imageDiff.diff(expected, actual, 0.99, List.of());
+
+        Assert.assertEquals(result.similarity(), 1.0);
+        Assert.assertEquals(result.changedPixels(), 0);
+        Assert.assertEquals(result.comparedPixels(), 64 * 64);
+        Assert.assertTrue(result.changedRegions().isEmpty());
+        Assert.assertTrue(result.matches(0.99));
+        Assert.assertTrue(Arrays.stream(result.heatmap().changeRatios()).noneMatch(Double::isNaN),
+                "Every tile should have been diffed");
+        release(expected, actual);
+    }
+
+    @Test(description = "A changed block is counted and reported as one region")
+    public void changedBlock() {
+        Mat expected = image(64, 64);
+        Mat actual = expected.clone();
+        fill(actual, new Rect(40, 40, 8, 8));
+
+        ImageDiff.Result result = imageDiff.diff(expected, actual, 0, List.of());
+
+        Assert.assertEquals(result.changedPixels(), 64);
+        Assert.assertEquals(result.similarity(), 1.0 - 64.0 / (64 * 64));
+        Assert.assertEquals(result.changedRegions(), List.of(new Rect(40, 40, 8, 8)));
+        Assert.assertEquals(result.heatmap().ratioAt(2, 2), 0.25);
+        Assert.assertEquals(result.heatmap().ratioAt(0, 0), 0.0);
+        release(expected, actual);
+    }
+
+    @Test(description = "A change spanning a tile border is merged into one region")
+    public void changeAcrossTiles() {
+        Mat expected = image(64, 64);
+        Mat actual = expected.clone();
+        fill(actual, new Rect(12, 4, 8, 8));
+
+        ImageDiff.Result result = imageDiff.diff(expected, actual, 0, List.of());
+
+        Assert.assertEquals(result.changedPixels(), 64);
+        Assert.assertEquals(result.changedRegions(), List.of(new Rect(12, 4, 8, 8)));
+        release(expected, actual);
+    }
+
+    @Test(description = "Changes inside an ignore region are neither changed nor compared")
+    public void ignoredBlock() {
+        Mat expected = image(64, 64);
+        Mat actual = expected.clone();
+        fill(actual, new Rect(20, 20, 8, 8));
+
+        ImageDiff.Result result = imageDiff.diff(expected, actual, 0.99, List.of(new Rect(18, 18, 12, 12)));
+
+        Assert.assertEquals(result.changedPixels(), 0);
+        Assert.assertEquals(result.comparedPixels(), 64 * 64 - 12 * 12);
+        Assert.assertTrue(result.changedRegions().isEmpty());
+        Assert.assertTrue(result.matches(0.99));
+        release(expected, actual);
+    }
+
+    @Test(description = "Pixels outside the overlap of differently sized images count as changed")
+    public void differentSizes() {
+        Mat expected = image(64, 64);
+        Mat actual = image(80, 64);
+
+        ImageDiff.Result result = imageDiff.diff(expected, actual, 0, List.of());
+
+        Assert.assertEquals(result.comparedPixels(), 64 * 80);
+        Assert.assertEquals(result.changedPixels(), 64 * 16);
+        Assert.assertEquals(result.changedRegions(), List.of(new Rect(0, 64, 64, 16)));
+        release(expected, actual);
+    }
+
+    @Test(description = "Similarity exactly at the threshold matches, just below it does not")
+    public void similarityAtThreshold() {
+        Mat expected = image(64, 64);
+        Mat actual = expected.clone();
+        fill(actual, new Rect(0, 0, 8, 8));
+        // 64 of 4096 pixels changed: similarity 0.984375
+        double similarity = 1.0 - 64.0 / 4096;
+
+        ImageDiff.Result atThreshold = imageDiff.diff(expected, actual, similarity, List.of());
+        ImageDiff.Result aboveThreshold = imageDiff.diff(expected, actual, 0.985, List.of());
+
+        Assert.assertFalse(atThreshold.budgetExceeded());
+        Assert.assertTrue(atThreshold.matches(similarity));
+        Assert.assertTrue(aboveThreshold.budgetExceeded());
+        Assert.assertFalse(aboveThreshold.matches(0.985));
+        release(expected, actual);
+    }
+
+    @Test(description = "The diff stops once the change budget is exceeded and marks skipped tiles")
+    public void budgetExceeded() {
+        Mat expected = image(256, 256);
+        Mat actual = expected.clone();
+        actual.setTo(CHANGE);
+
+        ImageDiff.Result result = imageDiff.diff(expected, actual, 0.99, List.of());
+
+        Assert.assertTrue(result.budgetExceeded());
+        Assert.assertFalse(result.matches(0.99));
+        Assert.assertTrue(result.changedPixels() < result.comparedPixels(), "Every tile was diffed");
+        double[] ratios = result.heatmap().changeRatios();
+        Assert.assertEquals(ratios.length, 16 * 16);
+        Assert.assertTrue(Arrays.stream(ratios).anyMatch(Double::isNaN), "No tile was skipped");
+        Assert.assertTrue(Arrays.stream(ratios).anyMatch(ratio -> ratio == 1.0), "No tile was diffed");
+        release(expected, actual);
+    }
+
+    private static Mat image(int rows, int cols) {
+        return new Mat(rows, cols, CvType.CV_8UC3, BACKGROUND);
+    }
+
+    private static void fill(Mat image, Rect region) {
+        Mat block = image.submat(region);
+        block.setTo(CHANGE);
+        block.release();
+    }
+
+    private static void release(Mat... images) {
+        for (Mat image : images) {
+            image.release();
+        }
+    }
+}
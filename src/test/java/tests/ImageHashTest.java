@@ -0,0 +1,123 @@
+package tests;
+
+import ai.ImageDiff;
+import ai.ImageHash;
+import ai.OpenCVLibrary;
+import ai.OpenCVUtil;
+import org.apache.commons.io.FileUtils;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ImageHashTest {
+    // 72x64 shrinks to the 9x8 hash grid in exact 8x8 blocks, so block values survive the resize unchanged
+    private static final int WIDTH = 72;
+    private static final int HEIGHT = 64;
+
+    private Path root;
+
+    @BeforeClass
+    public void checkOpenCV() throws IOException {
+        Assert.assertTrue(OpenCVLibrary.isAvailable(), "OpenCV is not loaded");
+        root = Files.createTempDirectory("image-hash");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteImages() throws IOException {
+        if (root != null) {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test(description = "Every pixel brighter than its right neighbour sets every bit")
+    public void hashOfGradients() {
+        Mat falling = columns(true);
+        Mat rising = columns(false);
+
+        Assert.assertEquals(ImageHash.dHash(falling), -1L);
+        Assert.assertEquals(ImageHash.dHash(rising), 0L);
+        Assert.assertEquals(ImageHash.distance(ImageHash.dHash(falling), ImageHash.dHash(rising)), 64);
+        falling.release();
+        rising.release();
+    }
+
+    @Test(description = "Grey, colour and encoded forms of one image hash the same")
+    public void hashIndependentOfForm() {
+        Mat grey = columns(true);
+        Mat colour = new Mat();
+        Imgproc.cvtColor(grey, colour, Imgproc.COLOR_GRAY2BGR);
+        MatOfByte png = new MatOfByte();
+        Imgcodecs.imencode(".png", colour, png);
+
+        long hash = ImageHash.dHash(grey);
+        Assert.assertEquals(ImageHash.dHash(colour), hash);
+        Assert.assertEquals(ImageHash.dHash(png.toArray()), hash);
+        Assert.assertEquals(ImageHash.distance(hash, hash), 0);
+        release(grey, colour, png);
+    }
+
+    @Test(description = "A small local change that keeps the dHash is still diffed and fails")
+    public void smallChangeWithSameHash() {
+        Mat grey = columns(true);
+        Mat baseline = new Mat();
+        Imgproc.cvtColor(grey, baseline, Imgproc.COLOR_GRAY2BGR);
+        Path baselineFile = root.resolve("baseline.png");
+        Assert.assertTrue(Imgcodecs.imwrite(baselineFile.toString(), baseline));
+        // Lightens a 4x4 corner of the column at level 140 by 60: its 8x8 cell averages 155, still between its
+        // neighbours at 160 and 120, so no hash bit flips
+        Mat changed = baseline.clone();
+        Mat block = changed.submat(new Rect(32, 0, 4, 4));
+        block.setTo(new Scalar(200, 200, 200));
+        block.release();
+        Assert.assertEquals(ImageHash.dHash(changed), ImageHash.dHash(baseline), "The change should keep the hash");
+
+        ImageDiff.Result result = OpenCVUtil.getInstance().diffImages(baselineFile.toString(), encode(changed),
+                0.999, List.of());
+
+        Assert.assertFalse(result.prefiltered(), "Changed image should be diffed");
+        Assert.assertTrue(result.changedPixels() > 0, "The changed corner should be counted");
+        Assert.assertFalse(result.matches(0.999));
+        release(grey, baseline, changed);
+    }
+
+    /**
+     * Eight-pixel wide columns whose grey level falls (or rises) from left to right.
+     */
+    private static Mat columns(boolean falling) {
+        Mat image = new Mat(HEIGHT, WIDTH, CvType.CV_8UC1);
+        for (int column = 0; column < WIDTH / 8; column++) {
+            int level = falling ? 220 - column * 20 : 60 + column * 20;
+            Mat block = image.submat(new Rect(column * 8, 0, 8, HEIGHT));
+            block.setTo(new Scalar(level));
+            block.release();
+        }
+        return image;
+    }
+
+    private static byte[] encode(Mat image) {
+        MatOfByte png = new MatOfByte();
+        Imgcodecs.imencode(".png", image, png);
+        byte[] bytes = png.toArray();
+        png.release();
+        return bytes;
+    }
+
+    private static void release(Mat... images) {
+        for (Mat image : images) {
+            image.release();
+        }
+    }
+}
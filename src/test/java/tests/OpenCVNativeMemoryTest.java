@@ -0,0 +1,78 @@
+package tests;
+
+import ai.OpenCVLibrary;
+import ai.OpenCVUtil;
+import org.apache.commons.io.FileUtils;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class OpenCVNativeMemoryTest {
+    private static final int PAIRS = 8;
+    private static final int COMPARISONS = 400;
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    private static final long IMAGE_BYTES = (long) WIDTH * HEIGHT * 3;
+    // Other test classes compare small images concurrently; a leaked input or scratch set per comparison grows
+    // by hundreds of megabytes over the run
+    private static final long TOLERANCE_BYTES = 4 * IMAGE_BYTES;
+
+    private Path root;
+    private String[][] pairs;
+
+    @BeforeClass
+    public void createImages() throws IOException {
+        Assert.assertTrue(OpenCVLibrary.isAvailable(), "OpenCV is not loaded");
+        root = Files.createTempDirectory("opencv-memory");
+        pairs = new String[PAIRS][];
+        for (int i = 0; i < PAIRS; i++) {
+            Mat image = new Mat(HEIGHT, WIDTH, CvType.CV_8UC3, new Scalar(40 + i * 20, 120, 200));
+            Mat changed = image.clone();
+            Imgproc.rectangle(changed, new Point(100 + i * 10, 100), new Point(300 + i * 10, 200),
+                    new Scalar(0, 0, 255), -1);
+            pairs[i] = new String[]{root.resolve("expected-" + i + ".png").toString(),
+                    root.resolve("actual-" + i + ".png").toString()};
+            Assert.assertTrue(Imgcodecs.imwrite(pairs[i][0], image));
+            Assert.assertTrue(Imgcodecs.imwrite(pairs[i][1], changed));
+            image.release();
+            changed.release();
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteImages() throws IOException {
+        if (root != null) {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test(description = "Native memory in use stays flat over repeated comparisons")
+    public void nativeMemoryStaysFlat() {
+        OpenCVUtil openCV = OpenCVUtil.getInstance();
+        // One pass loads every baseline and grows the scratch pool to its working size
+        for (String[] pair : pairs) {
+            Assert.assertTrue(openCV.compareImages(pair[0], pair[1], 0.95));
+        }
+        long before = openCV.getNativeBytesInUse();
+
+        for (int i = 0; i < COMPARISONS; i++) {
+            String[] pair = pairs[i % PAIRS];
+            openCV.compareImages(pair[0], pair[1], 0.95);
+        }
+        long after = openCV.getNativeBytesInUse();
+
+        Assert.assertTrue(after - before <= TOLERANCE_BYTES, String.format(
+                "Native bytes in use grew by %d KB over %d comparisons", (after - before) / 1024, COMPARISONS));
+    }
+}
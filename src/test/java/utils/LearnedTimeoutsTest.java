@@ -0,0 +1,71 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+public class LearnedTimeoutsTest {
+    private static final Duration BUDGET = Duration.ofSeconds(60);
+
+    @Test(description = "Without samples the budget applies")
+    public void unknownKey() {
+        Assert.assertEquals(LearnedTimeouts.timeoutFor("learned-test-unknown", BUDGET), BUDGET);
+    }
+
+    @Test(description = "The timeout is the p95 of the last 64 samples times the safety factor")
+    public void p95TimesSafetyFactor() {
+        String key = "learned-test-p95";
+        for (long millis = 100; millis <= 10_000; millis += 100) {
+            LearnedTimeouts.record(key, Duration.ofMillis(millis));
+        }
+        // The window keeps 3700..10000 ms; its p95 is the 61st of 64 samples, 9700 ms
+        Assert.assertEquals(LearnedTimeouts.timeoutFor(key, BUDGET), Duration.ofMillis(9_700 * 3));
+    }
+
+    @Test(description = "Old samples leave the window")
+    public void slidingWindow() {
+        String key = "learned-test-window";
+        for (int i = 0; i < 64; i++) {
+            LearnedTimeouts.record(key, Duration.ofMillis(5_000));
+        }
+        for (int i = 0; i < 64; i++) {
+            LearnedTimeouts.record(key, Duration.ofMillis(1_000));
+        }
+        Assert.assertEquals(LearnedTimeouts.timeoutFor(key, BUDGET), Duration.ofMillis(3_000));
+    }
+
+    @Test(description = "Learned timeouts are at least 2 s and at most the budget")
+    public void floorAndCap() {
+        String fast = "learned-test-fast";
+        String slow = "learned-test-slow";
+        for (int i = 0; i < 20; i++) {
+            LearnedTimeouts.record(fast, Duration.ofMillis(100));
+            LearnedTimeouts.record(slow, Duration.ofMillis(1_000));
+        }
+        Assert.assertEquals(LearnedTimeouts.timeoutFor(fast, BUDGET), Duration.ofSeconds(2));
+        Assert.assertEquals(LearnedTimeouts.timeoutFor(slow, BUDGET), Duration.ofSeconds(3));
+        Assert.assertEquals(LearnedTimeouts.timeoutFor(slow, Duration.ofMillis(2_500)), Duration.ofMillis(2_500));
+    }
+
+    @Test(description = "Learned p95 values survive a write and load")
+    public void persistence() throws IOException {
+        String key = "learned-test-persisted";
+        for (int i = 0; i < 10; i++) {
+            LearnedTimeouts.record(key, Duration.ofMillis(1_500));
+        }
+        Path store = Files.createTempFile("learned-timeouts", ".properties");
+        try {
+            LearnedTimeouts.write(store);
+            Map<String, Long> loaded = LearnedTimeouts.load(store);
+            Assert.assertEquals(loaded.get(key), Long.valueOf(1_500));
+        } finally {
+            Files.deleteIfExists(store);
+        }
+        Assert.assertTrue(LearnedTimeouts.load(store).isEmpty(), "A missing store should load as empty");
+    }
+}
@@ -0,0 +1,103 @@
+package utils.waitstats;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+
+    @Test(description = "Values below 32 µs get one exact bucket each")
+    public void exactBuckets() {
+        for (long value = 0; value < 32; value++) {
+            Assert.assertEquals(LatencyHistogram.indexOf(value), value);
+            Assert.assertEquals(LatencyHistogram.upperBoundOf((int) value), value);
+        }
+        Assert.assertEquals(LatencyHistogram.indexOf(32), 32);
+        Assert.assertEquals(LatencyHistogram.upperBoundOf(32), 32);
+    }
+
+    @Test(description = "From 64 µs on, buckets widen with every power of two")
+    public void bucketBoundaries() {
+        Assert.assertEquals(LatencyHistogram.indexOf(63), 63);
+        Assert.assertEquals(LatencyHistogram.indexOf(64), LatencyHistogram.indexOf(65));
+        Assert.assertEquals(LatencyHistogram.indexOf(66), LatencyHistogram.indexOf(65) + 1);
+        Assert.assertEquals(LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(64)), 65);
+        Assert.assertEquals(LatencyHistogram.indexOf(128), LatencyHistogram.indexOf(131));
+        Assert.assertEquals(LatencyHistogram.indexOf(132), LatencyHistogram.indexOf(131) + 1);
+    }
+
+    @Test(description = "Every value lies in its bucket, within 1/32 of the bucket's upper bound")
+    public void relativePrecision() {
+        for (long value = 1; value < (1L << 37); value = value * 3 / 2 + 1) {
+            int index = LatencyHistogram.indexOf(value);
+            long upper = LatencyHistogram.upperBoundOf(index);
+            Assert.assertTrue(upper >= value, value + " above its bucket's upper bound " + upper);
+            Assert.assertTrue(LatencyHistogram.upperBoundOf(index - 1) < value, value + " fits an earlier bucket");
+            Assert.assertTrue(upper - value <= value / 32, value + " too far from upper bound " + upper);
+        }
+    }
+
+    @Test(description = "Out-of-range values are clamped instead of failing")
+    public void clamping() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        Assert.assertEquals(histogram.getCount(), 2);
+        Assert.assertEquals(histogram.getPercentileMicros(50), 0);
+        Assert.assertEquals(histogram.getMaxMicros(), (1L << 38) - 1);
+        Assert.assertEquals(histogram.getPercentileMicros(100), (1L << 38) - 1);
+    }
+
+    @Test(description = "Percentiles report the bucket bound, capped at the maximum")
+    public void percentiles() {
+        Assert.assertEquals(new LatencyHistogram().getPercentileMicros(95), 0);
+
+        LatencyHistogram histogram = range(1, 100);
+        Assert.assertEquals(histogram.getCount(), 100);
+        Assert.assertEquals(histogram.getTotalMicros(), 5050);
+        Assert.assertEquals(histogram.getPercentileMicros(0), 1);
+        Assert.assertEquals(histogram.getPercentileMicros(50), 50);
+        Assert.assertEquals(histogram.getPercentileMicros(95), 95);
+        Assert.assertEquals(histogram.getPercentileMicros(99), 99);
+        // 100 shares a bucket with 101, the maximum caps the bound
+        Assert.assertEquals(histogram.getPercentileMicros(100), 100);
+    }
+
+    @Test(description = "Merging two histograms equals recording both ranges into one")
+    public void merge() {
+        LatencyHistogram merged = range(1, 50);
+        merged.merge(range(51, 100));
+        LatencyHistogram whole = range(1, 100);
+
+        Assert.assertEquals(merged.getCount(), whole.getCount());
+        Assert.assertEquals(merged.getTotalMicros(), whole.getTotalMicros());
+        Assert.assertEquals(merged.getMaxMicros(), whole.getMaxMicros());
+        Assert.assertEquals(merged.getPercentileMicros(95), whole.getPercentileMicros(95));
+        Assert.assertEquals(merged.encode(), whole.encode());
+    }
+
+    @Test(description = "The TSV cell form decodes to the same histogram")
+    public void encodeRoundTrip() {
+        LatencyHistogram histogram = range(1, 100);
+        histogram.record(250_000);
+
+        LatencyHistogram decoded = LatencyHistogram.decode(histogram.encode());
+
+        Assert.assertEquals(decoded.encode(), histogram.encode());
+        Assert.assertEquals(decoded.getCount(), 101);
+        Assert.assertEquals(decoded.getMaxMicros(), 250_000);
+        Assert.assertEquals(decoded.getPercentileMicros(50), histogram.getPercentileMicros(50));
+        Assert.assertEquals(decoded.getPercentileMicros(100), 250_000);
+
+        Assert.assertEquals(new LatencyHistogram().encode(), "0;0;0;");
+        Assert.assertEquals(LatencyHistogram.decode("0;0;0;").getCount(), 0);
+    }
+
+    private static LatencyHistogram range(long from, long to) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = from; value <= to; value++) {
+            histogram.record(value);
+        }
+        return histogram;
+    }
+}